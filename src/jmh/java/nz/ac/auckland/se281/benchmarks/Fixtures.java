@@ -0,0 +1,69 @@
+package nz.ac.auckland.se281.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import nz.ac.auckland.se281.MappedGraphLoader;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.Edge;
+import nz.ac.auckland.se281.datastructures.NumericGraphBuilder;
+
+/** Reads the shipped test cases for the benchmarks. */
+final class Fixtures {
+  private static final Path TESTCASES = Path.of("testcases");
+
+  private Fixtures() {}
+
+  /**
+   * Reads a test case into a builder, which can then build as many fresh copies of the graph as
+   * are needed.
+   *
+   * @param file The name of the test case.
+   * @return The builder holding every vertex and edge of the test case.
+   * @throws IOException If the test case cannot be read.
+   */
+  static NumericGraphBuilder read(String file) throws IOException {
+    NumericGraphBuilder builder = new NumericGraphBuilder();
+
+    if (!new MappedGraphLoader(builder).load(TESTCASES.resolve(file))) {
+      throw new IllegalArgumentException(file + " does not only number its vertices");
+    }
+
+    return builder;
+  }
+
+  /**
+   * Collects the vertex labels of a compact graph, to construct an equivalent generic graph.
+   *
+   * @param graph The compact graph.
+   * @return The set of labels.
+   */
+  static Set<String> getVertices(CompactGraph graph) {
+    Set<String> vertices = new HashSet<String>();
+
+    for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+      vertices.add(graph.getLabel(vertex));
+    }
+
+    return vertices;
+  }
+
+  /**
+   * Collects the edges of a compact graph, to construct an equivalent generic graph.
+   *
+   * @param graph The compact graph.
+   * @return The set of edges between labels.
+   */
+  static Set<Edge<String>> getEdges(CompactGraph graph) {
+    Set<Edge<String>> edges = new HashSet<Edge<String>>();
+
+    for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+      for (int destination : graph.getSuccessors(vertex)) {
+        edges.add(new Edge<String>(graph.getLabel(vertex), graph.getLabel(destination)));
+      }
+    }
+
+    return edges;
+  }
+}
@@ -0,0 +1,122 @@
+package nz.ac.auckland.se281.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.Edge;
+import nz.ac.auckland.se281.datastructures.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures each operation of the generic {@link Graph}.
+ *
+ * <p>The property checks and the operations that depend on them get a freshly built graph on every
+ * call, since a graph caches its relation profile after the first check. The allocation rate
+ * reported for them includes building that copy. The searches share one graph.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmarks {
+  /** The test case, read once per trial. */
+  @State(Scope.Benchmark)
+  public static class Fixture {
+    @Param({"test-1k.txt", "test-10k.txt", "test-100k.txt", "reflex-sym-1k.txt"})
+    public String file;
+
+    Set<String> vertices;
+
+    Set<Edge<String>> edges;
+
+    Graph<String> graph;
+
+    @Setup
+    public void setUp() throws IOException {
+      CompactGraph compact = Fixtures.read(file).build();
+      vertices = Fixtures.getVertices(compact);
+      edges = Fixtures.getEdges(compact);
+      graph = new Graph<String>(vertices, edges);
+    }
+  }
+
+  /** A copy of the test case that has not computed its relation profile yet. */
+  @State(Scope.Thread)
+  public static class FreshGraph {
+    Graph<String> graph;
+
+    @Setup(Level.Invocation)
+    public void setUp(Fixture fixture) {
+      graph = new Graph<String>(fixture.vertices, fixture.edges);
+    }
+  }
+
+  @Benchmark
+  public Set<String> getRoots(FreshGraph fresh) {
+    return fresh.graph.getRoots();
+  }
+
+  @Benchmark
+  public boolean isReflexive(FreshGraph fresh) {
+    return fresh.graph.isReflexive();
+  }
+
+  @Benchmark
+  public boolean isSymmetric(FreshGraph fresh) {
+    return fresh.graph.isSymmetric();
+  }
+
+  @Benchmark
+  public boolean isTransitive(FreshGraph fresh) {
+    return fresh.graph.isTransitive();
+  }
+
+  @Benchmark
+  public boolean isAntiSymmetric(FreshGraph fresh) {
+    return fresh.graph.isAntiSymmetric();
+  }
+
+  @Benchmark
+  public boolean isEquivalence(FreshGraph fresh) {
+    return fresh.graph.isEquivalence();
+  }
+
+  @Benchmark
+  public Set<String> getEquivalenceClass(FreshGraph fresh) {
+    return fresh.graph.getEquivalenceClass("0");
+  }
+
+  @Benchmark
+  public List<String> iterativeBreadthFirstSearch(Fixture fixture) {
+    return fixture.graph.iterativeBreadthFirstSearch();
+  }
+
+  @Benchmark
+  public List<String> iterativeDepthFirstSearch(Fixture fixture) {
+    return fixture.graph.iterativeDepthFirstSearch();
+  }
+
+  @Benchmark
+  public List<String> recursiveBreadthFirstSearch(Fixture fixture) {
+    return fixture.graph.recursiveBreadthFirstSearch();
+  }
+
+  @Benchmark
+  public List<String> recursiveDepthFirstSearch(Fixture fixture) {
+    return fixture.graph.recursiveDepthFirstSearch();
+  }
+}
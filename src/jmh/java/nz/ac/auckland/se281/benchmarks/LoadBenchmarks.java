@@ -0,0 +1,44 @@
+package nz.ac.auckland.se281.benchmarks;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.GraphCalculator;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes to open each test case.
+ *
+ * <p>{@link #open} goes through {@link GraphCalculator}, so after the first call a test case large
+ * enough to be snapshotted is read back from its snapshot. {@link #parse} always scans the DOT text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmarks {
+  @Param({"test-1k.txt", "test-10k.txt", "test-100k.txt", "reflex-sym-1k.txt"})
+  public String file;
+
+  @Benchmark
+  public GraphCalculator open() throws FileNotFoundException {
+    return new GraphCalculator(file);
+  }
+
+  @Benchmark
+  public CompactGraph parse() throws IOException {
+    return Fixtures.read(file).build();
+  }
+}
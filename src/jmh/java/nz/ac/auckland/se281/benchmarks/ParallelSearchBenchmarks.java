@@ -0,0 +1,80 @@
+package nz.ac.auckland.se281.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.NumericGraphBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how the parallel breadth-first search scales with the number of threads, against the
+ * sequential search, on a random graph with millions of edges.
+ *
+ * <p>Pass the thread counts to try with {@code -Djmh.include="ParallelSearchBenchmarks -p
+ * threads=1,2,4,8,16"} to go beyond the defaults.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelSearchBenchmarks {
+  private static final long SEED = 281;
+
+  @Param({"1000000"})
+  public int vertices;
+
+  @Param({"4"})
+  public int outDegree;
+
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  private CompactGraph graph;
+
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setUp() {
+    final NumericGraphBuilder builder = new NumericGraphBuilder();
+    final Random random = new Random(SEED);
+
+    for (int source = 0; source < vertices; source++) {
+      for (int i = 0; i < outDegree; i++) {
+        builder.addEdge(source, random.nextInt(vertices));
+      }
+    }
+
+    graph = builder.build();
+    pool = new ForkJoinPool(threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public List<String> iterativeBreadthFirstSearch() {
+    return graph.iterativeBreadthFirstSearch();
+  }
+
+  @Benchmark
+  public List<String> parallelBreadthFirstSearch() {
+    return graph.parallelBreadthFirstSearch(pool);
+  }
+}
@@ -0,0 +1,127 @@
+package nz.ac.auckland.se281.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.datastructures.IntQueue;
+import nz.ac.auckland.se281.datastructures.IntStack;
+import nz.ac.auckland.se281.datastructures.Queue;
+import nz.ac.auckland.se281.datastructures.Stack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures filling and then draining each stack and queue with the same number of elements: the
+ * linked {@link Stack} and {@link Queue}, the int-only {@link IntStack} and {@link IntQueue} that
+ * the searches use, and {@link ArrayDeque}.
+ *
+ * <p>Every call starts from a new, empty structure, so the cost of growing the arrays is included.
+ * The generic structures both box the same ints, so boxing costs the same for each of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackQueueBenchmarks {
+  @Param({"1000", "100000"})
+  public int size;
+
+  @Benchmark
+  public long linkedStack() {
+    Stack<Integer> stack = new Stack<Integer>();
+    long sum = 0;
+
+    for (int i = 0; i < size; i++) {
+      stack.push(i);
+    }
+    while (!stack.isEmpty()) {
+      sum += stack.pop();
+    }
+
+    return sum;
+  }
+
+  @Benchmark
+  public long intStack() {
+    IntStack stack = new IntStack();
+    long sum = 0;
+
+    for (int i = 0; i < size; i++) {
+      stack.push(i);
+    }
+    while (!stack.isEmpty()) {
+      sum += stack.pop();
+    }
+
+    return sum;
+  }
+
+  @Benchmark
+  public long dequeStack() {
+    ArrayDeque<Integer> stack = new ArrayDeque<Integer>();
+    long sum = 0;
+
+    for (int i = 0; i < size; i++) {
+      stack.push(i);
+    }
+    while (!stack.isEmpty()) {
+      sum += stack.pop();
+    }
+
+    return sum;
+  }
+
+  @Benchmark
+  public long linkedQueue() {
+    Queue<Integer> queue = new Queue<Integer>();
+    long sum = 0;
+
+    for (int i = 0; i < size; i++) {
+      queue.enqueue(i);
+    }
+    while (!queue.isEmpty()) {
+      sum += queue.dequeue().getData();
+    }
+
+    return sum;
+  }
+
+  @Benchmark
+  public long intQueue() {
+    IntQueue queue = new IntQueue();
+    long sum = 0;
+
+    for (int i = 0; i < size; i++) {
+      queue.enqueue(i);
+    }
+    while (!queue.isEmpty()) {
+      sum += queue.dequeue();
+    }
+
+    return sum;
+  }
+
+  @Benchmark
+  public long dequeQueue() {
+    ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+    long sum = 0;
+
+    for (int i = 0; i < size; i++) {
+      queue.add(i);
+    }
+    while (!queue.isEmpty()) {
+      sum += queue.poll();
+    }
+
+    return sum;
+  }
+}
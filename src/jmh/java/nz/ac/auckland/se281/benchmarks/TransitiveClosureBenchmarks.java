@@ -0,0 +1,77 @@
+package nz.ac.auckland.se281.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.NumericGraphBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the transitive closure and reduction of a random acyclic graph with tens of thousands of
+ * vertices, with different numbers of threads filling the rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TransitiveClosureBenchmarks {
+  private static final long SEED = 281;
+
+  @Param({"20000"})
+  public int vertices;
+
+  @Param({"3"})
+  public int outDegree;
+
+  @Param({"1", "2", "4", "8"})
+  public int threads;
+
+  private CompactGraph graph;
+
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setUp() {
+    final NumericGraphBuilder builder = new NumericGraphBuilder();
+    final Random random = new Random(SEED);
+
+    // Edges only go to lower vertices, so the graph has no cycles
+    for (int source = 1; source < vertices; source++) {
+      for (int i = 0; i < outDegree; i++) {
+        builder.addEdge(source, random.nextInt(source));
+      }
+    }
+
+    graph = builder.build();
+    pool = new ForkJoinPool(threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  public CompactGraph getTransitiveClosure() {
+    return graph.getTransitiveClosure(pool);
+  }
+
+  @Benchmark
+  public CompactGraph getTransitiveReduction() {
+    return graph.getTransitiveReduction(pool);
+  }
+}
@@ -0,0 +1,127 @@
+package nz.ac.auckland.se281.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.Edge;
+import nz.ac.auckland.se281.datastructures.Graph;
+import nz.ac.auckland.se281.datastructures.VertexOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the {@link VertexOrder}s that a {@link Graph} of labels can use: parsing both labels
+ * with {@link Long#parseLong} on every comparison, the {@link VertexOrder#numeric} order, ranking
+ * the labels by a key kept in a map for each one, and the {@link VertexOrder#natural} order of the
+ * strings, which lists the labels differently.
+ *
+ * <p>Sorting the labels measures the comparisons alone, and building a graph measures them as the
+ * sorted successor sets use them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VertexOrderBenchmarks {
+  /** The test case, read once per trial. */
+  @State(Scope.Benchmark)
+  public static class Fixture {
+    @Param({"test-10k.txt", "test-100k.txt"})
+    public String file;
+
+    @Param({"parsed", "numeric", "mapped", "natural"})
+    public String order;
+
+    Set<String> vertices;
+
+    Set<Edge<String>> edges;
+
+    List<String> shuffled;
+
+    List<String> sorted;
+
+    @Setup
+    public void setUp() throws IOException {
+      CompactGraph compact = Fixtures.read(file).build();
+      vertices = Fixtures.getVertices(compact);
+      edges = Fixtures.getEdges(compact);
+      shuffled = new ArrayList<String>(vertices);
+      Collections.shuffle(shuffled, new Random(21));
+      sorted = new ArrayList<String>(vertices);
+      sorted.sort(VertexOrder.numeric());
+    }
+
+    VertexOrder<String> createOrder() {
+      switch (order) {
+        case "parsed":
+          return (first, second) ->
+              Long.compare(Long.parseLong(first), Long.parseLong(second));
+        case "numeric":
+          return VertexOrder.numeric();
+        case "mapped":
+          return new MappedOrder(sorted);
+        default:
+          return VertexOrder.natural();
+      }
+    }
+  }
+
+  /** The labels in a shuffled order, with a new order to sort them by. */
+  @State(Scope.Thread)
+  public static class Labels {
+    List<String> labels;
+
+    VertexOrder<String> order;
+
+    @Setup(Level.Invocation)
+    public void setUp(Fixture fixture) {
+      labels = new ArrayList<String>(fixture.shuffled);
+      order = fixture.createOrder();
+    }
+  }
+
+  /** Ranks each label by its place in a sorted list, looking both ranks up in a map to compare. */
+  static class MappedOrder implements VertexOrder<String> {
+    private Map<String, Integer> ranks = new HashMap<String, Integer>();
+
+    MappedOrder(List<String> sorted) {
+      for (String label : sorted) {
+        ranks.put(label, ranks.size());
+      }
+    }
+
+    @Override
+    public int compare(String first, String second) {
+      return Integer.compare(ranks.get(first), ranks.get(second));
+    }
+  }
+
+  @Benchmark
+  public List<String> sortLabels(Labels labels) {
+    labels.labels.sort(labels.order);
+    return labels.labels;
+  }
+
+  @Benchmark
+  public Graph<String> buildGraph(Fixture fixture) {
+    return new Graph<String>(fixture.vertices, fixture.edges, fixture.createOrder());
+  }
+}
@@ -32,6 +32,27 @@ public enum Command {
       0,
       "Perform a recursive depth-first search on the current loaded file, and display the DFS"
           + " order"),
+  GRAPH_SEARCH_PBFS(
+      0,
+      "Perform a parallel breadth-first search on the current loaded file, and display the BFS"
+          + " order"),
+
+  ADD_VERTEX(1, "Add the vertex <VERTEX> to the loaded graph"),
+  REMOVE_VERTEX(1, "Remove the vertex <VERTEX> and its edges from the loaded graph"),
+  ADD_EDGE(2, "Add an edge from <SOURCE> to <DESTINATION> to the loaded graph"),
+  REMOVE_EDGE(2, "Remove the edge from <SOURCE> to <DESTINATION> from the loaded graph"),
+
+  SHORTEST_PATH(2, "Find a path with the fewest edges from <SOURCE> to <DESTINATION>"),
+  DISTANCES(1, "List the vertices reachable from <SOURCE> by their distance from it"),
+  REACHABLE(2, "Check if there is a path from <SOURCE> to <DESTINATION> in the loaded graph"),
+  TOPOLOGICAL_SORT(0, "Sort the vertices topologically, or show a cycle that prevents it"),
+  LIST_COMPONENTS(0, "List the strongly connected components and the condensation of the graph"),
+  TRANSITIVE_CLOSURE(1, "Write the transitive closure of the loaded graph to the file <FILENAME>"),
+  TRANSITIVE_REDUCTION(
+      1, "Write the transitive reduction of the loaded graph to the file <FILENAME>"),
+
+  USE(1, "Switch to the graph <NAME>, which must already be loaded in the workspace"),
+  LIST_GRAPHS(0, "List the graphs loaded in the workspace and the memory each one holds"),
 
   HELP(0, "Print usage"),
   EXIT(0, "Exit the application");
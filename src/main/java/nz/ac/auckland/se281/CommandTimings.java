@@ -0,0 +1,67 @@
+package nz.ac.auckland.se281;
+
+import java.io.PrintStream;
+
+/**
+ * Records how long each command of a batch takes, and reports the totals for each kind of command
+ * once the batch has finished.
+ */
+class CommandTimings {
+  private static final long NANOS_PER_MICRO = 1_000;
+  private static final long NANOS_PER_MILLI = 1_000_000;
+
+  private final long[] counts = new long[Command.values().length];
+  private final long[] totals = new long[counts.length];
+  private final long[] maxima = new long[counts.length];
+  private long commandCount;
+
+  /**
+   * Records one run of a command.
+   *
+   * @param command The command that was run, or {@code null} if it was not recognised.
+   * @param nanos How long it took, in nanoseconds.
+   */
+  void record(Command command, long nanos) {
+    commandCount++;
+
+    if (command == null) {
+      return;
+    }
+
+    int index = command.ordinal();
+    counts[index]++;
+    totals[index] += nanos;
+    maxima[index] = Math.max(maxima[index], nanos);
+  }
+
+  /**
+   * Prints the number of commands run and the throughput of the batch, followed by a line for each
+   * kind of command that was run, in the order of {@link Command}.
+   *
+   * @param out The stream to print the report to.
+   * @param elapsedNanos How long the whole batch took, in nanoseconds.
+   */
+  void print(PrintStream out, long elapsedNanos) {
+    long perSecond = elapsedNanos == 0 ? 0 : commandCount * 1_000_000_000L / elapsedNanos;
+
+    out.println(
+        MessageCli.BATCH_FINISHED.getMessage(
+            String.valueOf(commandCount),
+            String.valueOf(elapsedNanos / NANOS_PER_MILLI),
+            String.valueOf(perSecond)));
+
+    for (Command command : Command.values()) {
+      int index = command.ordinal();
+
+      if (counts[index] > 0) {
+        out.println(
+            MessageCli.COMMAND_TIMING.getMessage(
+                command.toString(),
+                String.valueOf(counts[index]),
+                String.valueOf(totals[index] / NANOS_PER_MICRO),
+                String.valueOf(totals[index] / counts[index] / NANOS_PER_MICRO),
+                String.valueOf(maxima[index] / NANOS_PER_MICRO)));
+      }
+    }
+  }
+}
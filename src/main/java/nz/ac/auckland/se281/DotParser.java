@@ -0,0 +1,364 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.io.Reader;
+import nz.ac.auckland.se281.datastructures.CompactGraphBuilder;
+
+/**
+ * A single-pass reader for the subset of the DOT language used by the test cases.
+ *
+ * <p>Statements are streamed straight into a {@link CompactGraphBuilder} as they are read, so no
+ * parse tree or intermediate node and edge objects are kept. The reader understands:
+ *
+ * <ul>
+ *   <li>an optional {@code strict} keyword, then {@code digraph} or {@code graph}, an optional name
+ *       and the statements between braces;
+ *   <li>edge chains such as {@code a -> b -> c}, ended by a semicolon, a comma, a newline or simply
+ *       the start of the next statement;
+ *   <li>node statements such as {@code a;};
+ *   <li>attribute lists in square brackets and {@code name = value} statements, which are skipped;
+ *   <li>plain, numeric and double-quoted identifiers, in which {@code \"} and {@code \\} are
+ *       escapes;
+ *   <li>{@code //} and {@code #} line comments and C-style block comments.
+ * </ul>
+ *
+ * <p>Subgraphs and HTML labels are not supported.
+ */
+public class DotParser {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final int EOF = -1;
+
+  private enum Token {
+    ID,
+    ARROW,
+    SEPARATOR,
+    EQUALS,
+    OPEN_BRACKET,
+    CLOSE_BRACKET,
+    OPEN_BRACE,
+    CLOSE_BRACE,
+    END
+  }
+
+  private final Reader reader;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+
+  private final StringBuilder text = new StringBuilder();
+
+  private int position;
+
+  private int limit;
+
+  private int line = 1;
+
+  private Token peeked;
+
+  /**
+   * Creates a new parser.
+   *
+   * @param reader The source of the DOT text. The caller is responsible for closing it.
+   */
+  public DotParser(final Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Reads the whole graph and adds every vertex and edge to the builder.
+   *
+   * @param builder The builder to add the vertices and edges to.
+   * @throws IOException If the source cannot be read.
+   * @throws IllegalArgumentException If the text is not in the supported DOT subset.
+   */
+  public void parseInto(final CompactGraphBuilder builder) throws IOException {
+    readHeader();
+
+    // The last vertex of the current statement, and whether an arrow is waiting for its target.
+    String previous = null;
+    boolean isArrowPending = false;
+
+    while (true) {
+      final Token token = nextToken();
+
+      switch (token) {
+        case ID:
+          final String id = text.toString();
+
+          if (isArrowPending) {
+            builder.addEdge(previous, id);
+            isArrowPending = false;
+          } else if (peekToken() == Token.EQUALS) {
+            // A graph attribute such as "rankdir = LR", which is not a vertex.
+            nextToken();
+            expect(Token.ID);
+            previous = null;
+            break;
+          } else if (isAttributeKeyword(id) && peekToken() == Token.OPEN_BRACKET) {
+            // A default attribute statement such as "node [shape = box]".
+            previous = null;
+            break;
+          } else {
+            builder.addVertex(id);
+          }
+
+          previous = id;
+          break;
+        case ARROW:
+          if (previous == null || isArrowPending) {
+            throw error("an edge is missing its source vertex");
+          }
+          isArrowPending = true;
+          break;
+        case OPEN_BRACKET:
+          skipAttributes();
+          break;
+        case SEPARATOR:
+          if (isArrowPending) {
+            throw error("an edge is missing its target vertex");
+          }
+          previous = null;
+          break;
+        case CLOSE_BRACE:
+          if (isArrowPending) {
+            throw error("an edge is missing its target vertex");
+          }
+          return;
+        default:
+          throw error("unexpected " + token);
+      }
+    }
+  }
+
+  private void readHeader() throws IOException {
+    String keyword = expect(Token.ID);
+
+    if (keyword.equalsIgnoreCase("strict")) {
+      keyword = expect(Token.ID);
+    }
+
+    if (!keyword.equalsIgnoreCase("digraph") && !keyword.equalsIgnoreCase("graph")) {
+      throw error("expected 'digraph' but found '" + keyword + "'");
+    }
+
+    // The graph name is optional.
+    if (peekToken() == Token.ID) {
+      nextToken();
+    }
+
+    expect(Token.OPEN_BRACE);
+  }
+
+  private void skipAttributes() throws IOException {
+    Token token;
+
+    do {
+      token = nextToken();
+
+      if (token == Token.END) {
+        throw error("an attribute list is not closed");
+      }
+    } while (token != Token.CLOSE_BRACKET);
+  }
+
+  private boolean isAttributeKeyword(final String id) {
+    return id.equalsIgnoreCase("node")
+        || id.equalsIgnoreCase("edge")
+        || id.equalsIgnoreCase("graph");
+  }
+
+  private String expect(final Token expected) throws IOException {
+    final Token token = nextToken();
+
+    if (token != expected) {
+      throw error("expected " + expected + " but found " + token);
+    }
+
+    return text.toString();
+  }
+
+  private Token peekToken() throws IOException {
+    if (peeked == null) {
+      peeked = readToken();
+    }
+
+    return peeked;
+  }
+
+  private Token nextToken() throws IOException {
+    if (peeked != null) {
+      final Token token = peeked;
+      peeked = null;
+      return token;
+    }
+
+    return readToken();
+  }
+
+  private Token readToken() throws IOException {
+    skipWhitespaceAndComments();
+
+    final int c = read();
+
+    switch (c) {
+      case EOF:
+        return Token.END;
+      case ';':
+      case ',':
+        return Token.SEPARATOR;
+      case '=':
+        return Token.EQUALS;
+      case '[':
+        return Token.OPEN_BRACKET;
+      case ']':
+        return Token.CLOSE_BRACKET;
+      case '{':
+        return Token.OPEN_BRACE;
+      case '}':
+        return Token.CLOSE_BRACE;
+      case '"':
+        readQuoted();
+        return Token.ID;
+      case '-':
+        // Both "->" and the undirected "--" connect two vertices.
+        if (peek() == '>' || peek() == '-') {
+          read();
+          return Token.ARROW;
+        }
+
+        // Otherwise it is the sign of a negative number.
+        if (!(peek() >= '0' && peek() <= '9') && peek() != '.') {
+          throw error("unexpected character '-'");
+        }
+        break;
+      default:
+        break;
+    }
+
+    if (c != '-' && !isIdCharacter(c)) {
+      throw error("unexpected character '" + (char) c + "'");
+    }
+
+    // A plain identifier or number, which may start with a minus sign.
+    text.setLength(0);
+    text.append((char) c);
+    while (isIdCharacter(peek())) {
+      text.append((char) read());
+    }
+
+    return Token.ID;
+  }
+
+  private void readQuoted() throws IOException {
+    text.setLength(0);
+
+    while (true) {
+      int c = read();
+
+      if (c == EOF) {
+        throw error("a quoted identifier is not closed");
+      } else if (c == '"') {
+        return;
+      } else if (c == '\\' && (peek() == '"' || peek() == '\\')) {
+        // An escaped quote, or an escaped backslash so that a label can end with one
+        c = read();
+      }
+
+      text.append((char) c);
+    }
+  }
+
+  private void skipWhitespaceAndComments() throws IOException {
+    while (true) {
+      final int c = peek();
+
+      if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+        read();
+      } else if (c == '#') {
+        skipLine();
+      } else if (c == '/') {
+        read();
+
+        if (peek() == '/') {
+          skipLine();
+        } else if (peek() == '*') {
+          skipBlockComment();
+        } else {
+          throw error("unexpected character '/'");
+        }
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void skipLine() throws IOException {
+    int c;
+
+    do {
+      c = read();
+    } while (c != '\n' && c != EOF);
+  }
+
+  private void skipBlockComment() throws IOException {
+    // Consume the opening star, then look for the closing star and slash.
+    read();
+    int c = read();
+
+    while (c != EOF) {
+      if (c == '*' && peek() == '/') {
+        read();
+        return;
+      }
+      c = read();
+    }
+
+    throw error("a block comment is not closed");
+  }
+
+  private boolean isIdCharacter(final int c) {
+    return (c >= '0' && c <= '9')
+        || (c >= 'a' && c <= 'z')
+        || (c >= 'A' && c <= 'Z')
+        || c == '_'
+        || c == '.'
+        || c >= 0x80;
+  }
+
+  private int peek() throws IOException {
+    if (position == limit && !fill()) {
+      return EOF;
+    }
+
+    return buffer[position];
+  }
+
+  private int read() throws IOException {
+    if (position == limit && !fill()) {
+      return EOF;
+    }
+
+    final char c = buffer[position++];
+    if (c == '\n') {
+      line++;
+    }
+
+    return c;
+  }
+
+  private boolean fill() throws IOException {
+    final int count = reader.read(buffer, 0, buffer.length);
+
+    if (count <= 0) {
+      return false;
+    }
+
+    position = 0;
+    limit = count;
+    return true;
+  }
+
+  private IllegalArgumentException error(final String message) {
+    return new IllegalArgumentException("Invalid graph on line " + line + ": " + message);
+  }
+}
@@ -0,0 +1,99 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.io.Writer;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+
+/**
+ * Writes a {@link CompactGraph} as a DOT digraph that {@link DotParser} can read back.
+ *
+ * <p>Each edge is written on its own line in the order of the vertex ids, and vertices without any
+ * edges are written as node statements first. Labels that are not plain identifiers or numbers are
+ * double-quoted.
+ */
+public class DotWriter {
+  private final Writer writer;
+
+  /**
+   * Creates a new writer.
+   *
+   * @param writer The destination of the DOT text. The caller is responsible for closing it.
+   */
+  public DotWriter(final Writer writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Writes the whole graph.
+   *
+   * @param name The name of the digraph, which must be a plain identifier.
+   * @param graph The graph to write.
+   * @throws IOException If the destination cannot be written to.
+   */
+  public void write(final String name, final CompactGraph graph) throws IOException {
+    writer.write("digraph " + name + " {\n");
+
+    for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+      if (graph.getOutDegree(vertex) == 0 && graph.getInDegree(vertex) == 0) {
+        writeLabel(graph.getLabel(vertex));
+        writer.write('\n');
+      }
+    }
+
+    for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+      for (final int destination : graph.getSuccessors(vertex)) {
+        writeLabel(graph.getLabel(vertex));
+        writer.write("->");
+        writeLabel(graph.getLabel(destination));
+        writer.write('\n');
+      }
+    }
+
+    writer.write("}\n");
+  }
+
+  private void writeLabel(final String label) throws IOException {
+    if (isPlain(label)) {
+      writer.write(label);
+      return;
+    }
+
+    writer.write('"');
+    writer.write(label.replace("\\", "\\\\").replace("\"", "\\\""));
+    writer.write('"');
+  }
+
+  private boolean isPlain(final String label) {
+    if (label.isEmpty()) {
+      return false;
+    }
+
+    // A leading minus sign is only read as part of a number
+    int start = 0;
+    if (label.charAt(0) == '-') {
+      if (label.length() == 1 || !isNumberStart(label.charAt(1))) {
+        return false;
+      }
+      start = 1;
+    }
+
+    for (int i = start; i < label.length(); i++) {
+      final char c = label.charAt(i);
+
+      if (!((c >= '0' && c <= '9')
+          || (c >= 'a' && c <= 'z')
+          || (c >= 'A' && c <= 'Z')
+          || c == '_'
+          || c == '.'
+          || c >= 0x80)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean isNumberStart(final char c) {
+    return (c >= '0' && c <= '9') || c == '.';
+  }
+}
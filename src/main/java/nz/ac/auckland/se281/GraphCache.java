@@ -0,0 +1,236 @@
+package nz.ac.auckland.se281;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+
+/**
+ * A workspace of named graphs that stay loaded, so switching back to a test case does not parse
+ * its file again. It hands out calculators that share each loaded graph, and the sessions of a
+ * {@link GraphServer} share one workspace.
+ *
+ * <p>The graphs are weighed by their estimated footprint, including the indexes that they have
+ * cached, and the least recently used ones are forgotten once the total goes over a budget. The
+ * budget can be set in bytes with the {@code graphcalculator.cacheBytes} system property and
+ * defaults to a quarter of the maximum heap, which leaves the rest of the heap for the commands
+ * themselves.
+ *
+ * <p>Forgetting a graph that a session is still using would not free it, so such a graph is never
+ * forgotten. Each calculator that the workspace hands out counts as one use of its graph until it
+ * is given back with {@link #release}. A graph whose file is loaded again while it is in use stays
+ * counted against the budget, beside the new one, until its last use is released.
+ *
+ * <p>A file is read without holding the workspace's lock, so other sessions can use the loaded
+ * graphs in the meantime. A session that opens a file that is being read waits for that read to
+ * finish rather than reading the file again.
+ */
+public class GraphCache {
+  /** The number of bytes that the graphs of a workspace may hold, unless it is given one. */
+  public static final long DEFAULT_BUDGET =
+      Long.getLong("graphcalculator.cacheBytes", Runtime.getRuntime().maxMemory() / 4);
+
+  private final long budget;
+
+  // Iterates from the least recently used graph to the most recently used one
+  private final Map<String, GraphCalculator> loaded = new LinkedHashMap<>(16, 0.75f, true);
+
+  // How many calculators handed out by the workspace are using each graph
+  private final Map<CompactGraph, Integer> users = new IdentityHashMap<>();
+
+  // The graphs that are still in use after their file was loaded again, by the file's name
+  private final Map<CompactGraph, String> replaced = new IdentityHashMap<>();
+
+  // The files being read outside the lock, which finish when the graph is in the workspace
+  private final Map<String, CompletableFuture<Void>> loading = new HashMap<>();
+
+  /** Creates an empty workspace with the default budget. */
+  public GraphCache() {
+    this(DEFAULT_BUDGET);
+  }
+
+  /**
+   * Creates an empty workspace.
+   *
+   * @param budget The number of bytes that its graphs may hold.
+   */
+  public GraphCache(final long budget) {
+    this.budget = budget;
+  }
+
+  /**
+   * Creates a calculator for a test case, loading the file if it is not in the workspace or has
+   * changed since it was loaded.
+   *
+   * @param filename The name of the test case to open.
+   * @return A calculator of its own, over the graph shared by every calculator for the file, which
+   *     must be given back with {@link #release} once it is no longer used.
+   * @throws FileNotFoundException If the file does not exist.
+   */
+  public GraphCalculator open(final String filename) throws FileNotFoundException {
+    while (true) {
+      final CompletableFuture<Void> load;
+      final boolean isLoading;
+
+      synchronized (this) {
+        final GraphCalculator calculator = loaded.get(filename);
+        if (calculator != null && !calculator.isStale()) {
+          return acquire(calculator);
+        }
+
+        isLoading = loading.containsKey(filename);
+        if (isLoading) {
+          load = loading.get(filename);
+        } else {
+          load = new CompletableFuture<>();
+          loading.put(filename, load);
+
+          // Forget the old graph first, so that both are not held while the file is read again
+          final GraphCalculator old = loaded.remove(filename);
+          if (old != null && users.containsKey(old.getSharedGraph())) {
+            replaced.put(old.getSharedGraph(), filename);
+          }
+        }
+      }
+
+      if (isLoading) {
+        // Another session is reading the file, so look again once it has finished
+        load.join();
+        continue;
+      }
+
+      try {
+        final GraphCalculator calculator = new GraphCalculator(filename);
+
+        synchronized (this) {
+          loaded.put(filename, calculator);
+          return acquire(calculator);
+        }
+      } finally {
+        synchronized (this) {
+          loading.remove(filename);
+        }
+        load.complete(null);
+      }
+    }
+  }
+
+  /**
+   * Creates a calculator for a graph that is still in the workspace, without reading its file.
+   *
+   * @param name The name of the test case.
+   * @return A calculator over the loaded graph, which must be given back with {@link #release}
+   *     once it is no longer used, or {@code null} if the graph is not loaded.
+   */
+  public synchronized GraphCalculator use(final String name) {
+    final GraphCalculator calculator = loaded.get(name);
+
+    return calculator != null ? acquire(calculator) : null;
+  }
+
+  /**
+   * Gives back a calculator that the workspace handed out, so that its graph can be forgotten once
+   * no other calculator is using it.
+   *
+   * @param calculator The calculator that is no longer used, or {@code null} to do nothing.
+   */
+  public synchronized void release(final GraphCalculator calculator) {
+    if (calculator == null) {
+      return;
+    }
+
+    final CompactGraph graph = calculator.getSharedGraph();
+    final int count = users.getOrDefault(graph, 0);
+
+    if (count > 1) {
+      users.put(graph, count - 1);
+    } else {
+      users.remove(graph);
+      replaced.remove(graph);
+    }
+
+    evict();
+  }
+
+  /**
+   * Prints the graphs in the workspace, from the most recently used, with the memory that each of
+   * them holds. The indexes that commands have built since the graphs were last weighed are
+   * counted, so graphs may be forgotten first to bring the total back under the budget. The graphs
+   * that are still in use after their file was loaded again are listed last.
+   */
+  public synchronized void printGraphs() {
+    evict();
+
+    final List<String> lines = new ArrayList<>();
+    long total = 0;
+
+    for (final Map.Entry<String, GraphCalculator> entry : loaded.entrySet()) {
+      final CompactGraph graph = entry.getValue().getSharedGraph();
+      final long bytes = graph.getMemoryBytes();
+
+      total += bytes;
+      lines.add(
+          MessageCli.WORKSPACE_GRAPH.getMessage(
+              entry.getKey(), String.valueOf(bytes), users.containsKey(graph) ? " (in use)" : ""));
+    }
+
+    // The map runs from the least recently used graph
+    Collections.reverse(lines);
+
+    for (final Map.Entry<CompactGraph, String> entry : replaced.entrySet()) {
+      final long bytes = entry.getKey().getMemoryBytes();
+
+      total += bytes;
+      lines.add(
+          MessageCli.WORKSPACE_GRAPH.getMessage(
+              entry.getValue(), String.valueOf(bytes), " (in use, file changed)"));
+    }
+
+    MessageCli.WORKSPACE.printMessage(
+        String.valueOf(lines.size()),
+        lines.size() == 1 ? "" : "s",
+        String.valueOf(total),
+        String.valueOf(budget));
+
+    for (final String line : lines) {
+      System.out.println(line);
+    }
+  }
+
+  private GraphCalculator acquire(final GraphCalculator calculator) {
+    users.merge(calculator.getSharedGraph(), 1, Integer::sum);
+    evict();
+    return new GraphCalculator(calculator);
+  }
+
+  private void evict() {
+    // The graphs publish their size whenever they cache an index, so it can be read without
+    // holding the lock that sessions take to build one
+    long total = 0;
+    for (final GraphCalculator calculator : loaded.values()) {
+      total += calculator.getSharedGraph().getMemoryBytes();
+    }
+    for (final CompactGraph graph : replaced.keySet()) {
+      total += graph.getMemoryBytes();
+    }
+
+    final Iterator<GraphCalculator> iterator = loaded.values().iterator();
+
+    // The graphs in use are kept even if they are over the budget on their own
+    while (total > budget && iterator.hasNext()) {
+      final CompactGraph graph = iterator.next().getSharedGraph();
+
+      if (!users.containsKey(graph)) {
+        total -= graph.getMemoryBytes();
+        iterator.remove();
+      }
+    }
+  }
+}
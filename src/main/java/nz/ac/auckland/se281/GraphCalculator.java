@@ -1,17 +1,28 @@
 package nz.ac.auckland.se281;
 
-import com.paypal.digraph.parser.GraphEdge;
-import com.paypal.digraph.parser.GraphNode;
-import com.paypal.digraph.parser.GraphParser;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
-import nz.ac.auckland.se281.datastructures.Edge;
+import java.util.concurrent.ForkJoinPool;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.CompactGraphBuilder;
+import nz.ac.auckland.se281.datastructures.DirectedGraph;
 import nz.ac.auckland.se281.datastructures.Graph;
+import nz.ac.auckland.se281.datastructures.GraphSnapshot;
+import nz.ac.auckland.se281.datastructures.NumericGraphBuilder;
+import nz.ac.auckland.se281.datastructures.ParallelProfiler;
+import nz.ac.auckland.se281.datastructures.ReachabilityIndex;
+import nz.ac.auckland.se281.datastructures.StronglyConnectedComponents;
+import nz.ac.auckland.se281.datastructures.TopologicalSort;
 
 /**
  * The calculator that reports properties of graphs to the user.
@@ -21,66 +32,271 @@ import nz.ac.auckland.se281.datastructures.Graph;
 public class GraphCalculator {
   private static final Path TESTCASES = Path.of("testcases");
 
+  /**
+   * The number of threads used to load a file and to run a parallel search, which can be set with
+   * the {@code graphcalculator.threads} system property and defaults to the number of available
+   * processors.
+   */
+  public static final int DEFAULT_THREADS =
+      Integer.getInteger("graphcalculator.threads", Runtime.getRuntime().availableProcessors());
+
+  // Smaller files are parsed about as quickly as their snapshot can be checked
+  private static final long SNAPSHOT_MIN_SIZE = 1024 * 1024;
+
   private final Path file;
 
-  private final Collection<GraphNode> verticies;
+  private final CompactGraph graph;
+
+  // When the file was last changed before it was loaded
+  private final FileTime modified;
+
+  // An editable copy of the graph, made by the first command that changes it
+  private Graph<String> edited;
+
+  // The edited graph packed back into int rows, until it is next changed
+  private CompactGraph packed;
 
-  private final Collection<GraphEdge> edges;
+  private final int threads;
 
-  private final Graph<String> graph;
+  private boolean isSnapshotEnabled;
+
+  private boolean isSnapshotProfiled;
 
   /**
    * Creates a new graph calculator.
    *
    * @param filename The name of the test case to read.
-   * @throws FileNotFoundException If the file does not exist.
+   * @throws FileNotFoundException If the file does not exist in the test cases folder.
    */
   public GraphCalculator(final String filename) throws FileNotFoundException {
-    file = TESTCASES.resolve(filename);
+    this(filename, DEFAULT_THREADS);
+  }
+
+  /**
+   * Creates a new graph calculator, loading the file with the given number of threads.
+   *
+   * @param filename The name of the test case to read.
+   * @param threads The number of threads to load the file and run parallel searches with.
+   * @throws FileNotFoundException If the file does not exist in the test cases folder.
+   */
+  public GraphCalculator(final String filename, final int threads) throws FileNotFoundException {
+    file = resolve(filename);
+    this.threads = threads;
+
+    if (file == null || !Files.isRegularFile(file)) {
+      throw new FileNotFoundException(filename);
+    }
+
+    final CompactGraph snapshot;
+
+    try {
+      modified = Files.getLastModifiedTime(file);
+
+      // A large file that was opened before can be read back from its binary snapshot.
+      isSnapshotEnabled = Files.size(file) >= SNAPSHOT_MIN_SIZE;
+      snapshot = isSnapshotEnabled ? GraphSnapshot.read(file) : null;
+      graph = snapshot != null ? snapshot : load(file, threads);
+    } catch (FileNotFoundException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    isSnapshotProfiled = graph.isProfiled();
+    if (isSnapshotEnabled && snapshot == null) {
+      saveSnapshot();
+    }
+  }
+
+  /**
+   * Creates a calculator over the graph that another calculator has already loaded, without
+   * reading the file again. Edits made through either calculator are not seen by the other.
+   *
+   * <p>The loaded graph caches what it computes, so calculators that share it must not run
+   * commands at the same time. {@link #getSharedGraph} is the object to lock while they do.
+   *
+   * @param loaded The calculator whose graph is shared.
+   */
+  public GraphCalculator(final GraphCalculator loaded) {
+    file = loaded.file;
+    graph = loaded.graph;
+    modified = loaded.modified;
+    threads = loaded.threads;
+    isSnapshotEnabled = loaded.isSnapshotEnabled;
+    isSnapshotProfiled = loaded.isSnapshotProfiled;
+  }
+
+  /**
+   * Retrieves the graph loaded from the file, which is shared with every calculator created from
+   * this one.
+   *
+   * @return The loaded graph, without any edits.
+   */
+  CompactGraph getSharedGraph() {
+    return graph;
+  }
+
+  /**
+   * Retrieves the name of the test case that is loaded, as {@link #printInfo} prints it.
+   *
+   * @return The name of the file.
+   */
+  String getName() {
+    return TESTCASES.relativize(file).toString();
+  }
+
+  /**
+   * Checks if the file has changed since it was loaded, so that the loaded graph no longer
+   * describes it.
+   *
+   * @return {@code true} if the file has been changed or removed.
+   */
+  boolean isStale() {
+    try {
+      return !Files.getLastModifiedTime(file).equals(modified);
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  private void saveSnapshot() {
+    try {
+      GraphSnapshot.write(graph, file);
+      isSnapshotProfiled = graph.isProfiled();
+    } catch (IOException e) {
+      // The snapshot is only a cache, so a directory that cannot be written to is not an error.
+      isSnapshotEnabled = false;
+    }
+  }
+
+  private void analyse() {
+    // The properties of a large relation are checked on several threads the first time that they,
+    // or the roots and equivalence classes that depend on them, are needed.
+    if (edited != null
+        || graph.isProfiled()
+        || threads <= 1
+        || graph.getEdgeCount() < ParallelProfiler.MIN_TASK_EDGES) {
+      return;
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+
+    try {
+      graph.getProfile(pool);
+    } finally {
+      pool.shutdown();
+    }
+  }
 
-    final GraphParser parser = new GraphParser(new FileInputStream(file.toFile()));
+  private DirectedGraph<String> current() {
+    return edited != null ? edited : graph;
+  }
+
+  private Graph<String> edit() {
+    // The snapshot keeps describing the file, since edits are never written back to it
+    if (edited == null) {
+      edited = graph.toGraph();
+    }
+
+    packed = null;
+    return edited;
+  }
+
+  private void updateSnapshot() {
+    // Rewrite the snapshot once the properties are known, so that they are cached for next time.
+    if (isSnapshotEnabled && !isSnapshotProfiled && graph.isProfiled()) {
+      saveSnapshot();
+    }
+  }
+
+  private static CompactGraph load(final Path file, final int threads) throws IOException {
+    // Large files are split into chunks that are scanned on several threads.
+    if (threads > 1 && Files.size(file) >= 2 * ParallelGraphLoader.MIN_CHUNK_SIZE) {
+      final ForkJoinPool pool = new ForkJoinPool(threads);
 
-    this.verticies = parser.getNodes().values();
-    this.edges = parser.getEdges().values();
+      try {
+        final CompactGraph graph = new ParallelGraphLoader(pool).load(file);
+
+        if (graph != null) {
+          return graph;
+        }
+      } finally {
+        pool.shutdown();
+      }
+    }
 
-    final Set<String> verticies = new HashSet<>();
+    // Most test cases only number their vertices, so first try scanning the mapped file for
+    // integers without creating a String per token.
+    final NumericGraphBuilder numericBuilder = new NumericGraphBuilder();
 
-    for (final GraphNode node : this.verticies) {
-      verticies.add(node.getId());
+    if (new MappedGraphLoader(numericBuilder).load(file)) {
+      return numericBuilder.build();
     }
 
-    final Set<Edge<String>> edges = new HashSet<>();
+    // Otherwise stream the statements straight into the builder, which interns the vertex labels
+    // so that the graph stores each edge as a pair of ints.
+    final CompactGraphBuilder builder = new CompactGraphBuilder();
 
-    for (final GraphEdge edge : this.edges) {
-      edges.add(new Edge<>(edge.getNode1().getId(), edge.getNode2().getId()));
+    try (Reader reader =
+        new InputStreamReader(new FileInputStream(file.toFile()), StandardCharsets.UTF_8)) {
+      new DotParser(reader).parseInto(builder);
     }
 
-    graph = new Graph<>(verticies, edges);
+    return builder.build();
   }
 
   /** Prints the filename of the test case that is loaded. */
   public void printInfo() {
-    MessageCli.INFO.printMessage(TESTCASES.relativize(file).toString());
+    MessageCli.INFO.printMessage(getName());
   }
 
   /** Prints the set of verticies and edges in the graph. */
   public void printVerticiesEdges() {
+    if (edited != null) {
+      printEditedVerticiesEdges();
+      return;
+    }
+
     final StringBuilder sb = new StringBuilder("Verticies:").append(System.lineSeparator());
 
     // Vertically print each vertex.
-    for (final GraphNode node : verticies) {
-      sb.append("\t").append(node.getId()).append(System.lineSeparator());
+    for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+      sb.append("\t").append(graph.getLabel(vertex)).append(System.lineSeparator());
     }
 
     sb.append(System.lineSeparator()).append("Edges:").append(System.lineSeparator());
 
     // Vertically print each edge between verticies.
-    for (final GraphEdge edge : edges) {
-      sb.append("\t")
-          .append(edge.getNode1().getId())
-          .append(" -> ")
-          .append(edge.getNode2().getId())
-          .append(System.lineSeparator());
+    for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+      for (final int destination : graph.getSuccessors(vertex)) {
+        sb.append("\t")
+            .append(graph.getLabel(vertex))
+            .append(" -> ")
+            .append(graph.getLabel(destination))
+            .append(System.lineSeparator());
+      }
+    }
+
+    System.out.print(sb.toString());
+  }
+
+  private void printEditedVerticiesEdges() {
+    final StringBuilder sb = new StringBuilder("Verticies:").append(System.lineSeparator());
+
+    for (final String vertex : edited.getVertices()) {
+      sb.append("\t").append(vertex).append(System.lineSeparator());
+    }
+
+    sb.append(System.lineSeparator()).append("Edges:").append(System.lineSeparator());
+
+    for (final String vertex : edited.getVertices()) {
+      for (final String destination : edited.getSuccessors(vertex)) {
+        sb.append("\t")
+            .append(vertex)
+            .append(" -> ")
+            .append(destination)
+            .append(System.lineSeparator());
+      }
     }
 
     System.out.print(sb.toString());
@@ -88,32 +304,44 @@ public class GraphCalculator {
 
   /** Prints the set of verticies in the graph that are root verticies. */
   public void printRoots() {
-    System.out.println(graph.getRoots());
+    analyse();
+    System.out.println(current().getRoots());
+    updateSnapshot();
   }
 
   /** Prints if the set of verticies in the graph exhibit the reflexivity property. */
   public void printReflexitivity() {
-    MessageCli.GRAPH_REFLEXIVE.printMessage(prefixNot(graph.isReflexive()));
+    analyse();
+    MessageCli.GRAPH_REFLEXIVE.printMessage(prefixNot(current().isReflexive()));
+    updateSnapshot();
   }
 
   /** Prints if the set of edges in the graph exhibit the symmetric property. */
   public void printSymmetry() {
-    MessageCli.GRAPH_SYMMETRIC.printMessage(prefixNot(graph.isSymmetric()));
+    analyse();
+    MessageCli.GRAPH_SYMMETRIC.printMessage(prefixNot(current().isSymmetric()));
+    updateSnapshot();
   }
 
   /** Prints if the set of edges in the graph exhibit transitivity. */
   public void printTransitivity() {
-    MessageCli.GRAPH_TRANSITIVE.printMessage(prefixNot(graph.isTransitive()));
+    analyse();
+    MessageCli.GRAPH_TRANSITIVE.printMessage(prefixNot(current().isTransitive()));
+    updateSnapshot();
   }
 
   /** Prints if the set of edges in the graph exhibit anti-symmetry. */
   public void printAntiSymmetry() {
-    MessageCli.GRAPH_ANTI_SYMMETRIC.printMessage(prefixNot(graph.isAntiSymmetric()));
+    analyse();
+    MessageCli.GRAPH_ANTI_SYMMETRIC.printMessage(prefixNot(current().isAntiSymmetric()));
+    updateSnapshot();
   }
 
   /** Prints if the entire graph is considered an equivalence relation. */
   public void printEquivalence() {
-    MessageCli.GRAPH_EQUIVALENCE.printMessage(prefixNot(graph.isEquivalence()));
+    analyse();
+    MessageCli.GRAPH_EQUIVALENCE.printMessage(prefixNot(current().isEquivalence()));
+    updateSnapshot();
   }
 
   /**
@@ -122,29 +350,406 @@ public class GraphCalculator {
    * @param vertex The vertex to compute the equivalence class of.
    */
   public void printEquivalenceClass(final String vertex) {
-    final Object[] equivalenceClass = graph.getEquivalenceClass(vertex).toArray();
+    analyse();
+    final Object[] equivalenceClass = current().getEquivalenceClass(vertex).toArray();
     Arrays.sort(equivalenceClass);
     System.out.println(Arrays.toString(equivalenceClass));
+    updateSnapshot();
   }
 
   /** Prints the search order of an iterative breadth first search. */
   public void printIterativeBreadthFirstSearch() {
-    System.out.println(Arrays.toString(graph.iterativeBreadthFirstSearch().toArray()));
+    analyse();
+    System.out.println(Arrays.toString(current().iterativeBreadthFirstSearch().toArray()));
   }
 
   /** Prints the search order of an iterative depth first search. */
   public void printDepthFirstSearch() {
-    System.out.println(Arrays.toString(graph.iterativeDepthFirstSearch().toArray()));
+    analyse();
+    System.out.println(Arrays.toString(current().iterativeDepthFirstSearch().toArray()));
   }
 
   /** Prints the search order of a recursive breadth first search. */
   public void printRecursiveBreadthFirstSearch() {
-    System.out.println(Arrays.toString(graph.recursiveBreadthFirstSearch().toArray()));
+    analyse();
+    System.out.println(Arrays.toString(current().recursiveBreadthFirstSearch().toArray()));
   }
 
   /** Prints the search order of a recursive depth first search. */
   public void printRecursiveDepthFirstSearch() {
-    System.out.println(Arrays.toString(graph.recursiveDepthFirstSearch().toArray()));
+    analyse();
+    System.out.println(Arrays.toString(current().recursiveDepthFirstSearch().toArray()));
+  }
+
+  /** Prints the search order of a breadth first search that expands each level in parallel. */
+  public void printParallelBreadthFirstSearch() {
+    analyse();
+
+    // An edited graph is only searched sequentially, which visits the vertices in the same order
+    if (edited != null) {
+      printIterativeBreadthFirstSearch();
+      return;
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+
+    try {
+      System.out.println(Arrays.toString(graph.parallelBreadthFirstSearch(pool).toArray()));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Adds a vertex without any edges to the graph.
+   *
+   * @param vertex The label of the vertex.
+   */
+  public void addVertex(final String vertex) {
+    if (edit().addVertex(vertex)) {
+      MessageCli.VERTEX_ADDED.printMessage(vertex);
+    } else {
+      MessageCli.VERTEX_EXISTS.printMessage(vertex);
+    }
+  }
+
+  /**
+   * Removes a vertex and every edge to or from it from the graph.
+   *
+   * @param vertex The label of the vertex.
+   */
+  public void removeVertex(final String vertex) {
+    if (edit().removeVertex(vertex)) {
+      MessageCli.VERTEX_REMOVED.printMessage(vertex);
+    } else {
+      MessageCli.VERTEX_NOT_FOUND.printMessage(vertex);
+    }
+  }
+
+  /**
+   * Adds an edge to the graph, along with its source and destination if they are new.
+   *
+   * @param source The label of the source vertex.
+   * @param destination The label of the destination vertex.
+   */
+  public void addEdge(final String source, final String destination) {
+    if (edit().addEdge(source, destination)) {
+      MessageCli.EDGE_ADDED.printMessage(source, destination);
+    } else {
+      MessageCli.EDGE_EXISTS.printMessage(source, destination);
+    }
+  }
+
+  /**
+   * Removes an edge from the graph, keeping its source and destination.
+   *
+   * @param source The label of the source vertex.
+   * @param destination The label of the destination vertex.
+   */
+  public void removeEdge(final String source, final String destination) {
+    if (edit().removeEdge(source, destination)) {
+      MessageCli.EDGE_REMOVED.printMessage(source, destination);
+    } else {
+      MessageCli.EDGE_NOT_FOUND.printMessage(source, destination);
+    }
+  }
+
+  /**
+   * Prints a path with the fewest edges from one vertex to another, found with a bidirectional
+   * breadth first search.
+   *
+   * @param source The label of the vertex to start from.
+   * @param destination The label of the vertex to reach.
+   */
+  public void printShortestPath(final String source, final String destination) {
+    final CompactGraph current = compact();
+    final int from = current.indexOf(source);
+    final int to = current.indexOf(destination);
+
+    if (from < 0 || to < 0) {
+      MessageCli.VERTEX_NOT_FOUND.printMessage(from < 0 ? source : destination);
+      return;
+    }
+
+    final int[] path = current.getShortestPaths().getShortestPath(from, to);
+
+    if (path == null) {
+      MessageCli.NO_PATH.printMessage(source, destination);
+      return;
+    }
+
+    final String[] labels = new String[path.length];
+    for (int i = 0; i < path.length; i++) {
+      labels[i] = current.getLabel(path[i]);
+    }
+
+    MessageCli.SHORTEST_PATH.printMessage(
+        source, destination, String.valueOf(path.length - 1), Arrays.toString(labels));
+  }
+
+  /**
+   * Prints the vertices that can be reached from a vertex, grouped by the number of edges on the
+   * shortest path to them.
+   *
+   * @param source The label of the vertex to start from.
+   */
+  public void printDistances(final String source) {
+    final CompactGraph current = compact();
+    final int from = current.indexOf(source);
+
+    if (from < 0) {
+      MessageCli.VERTEX_NOT_FOUND.printMessage(source);
+      return;
+    }
+
+    final int[] distances = current.getShortestPaths().getDistances(from);
+    int levelCount = 0;
+
+    for (final int distance : distances) {
+      levelCount = Math.max(levelCount, distance + 1);
+    }
+
+    // Group the vertices by distance, keeping each group in the order of the vertices
+    final int[] levelOffsets = new int[levelCount + 1];
+    for (final int distance : distances) {
+      if (distance >= 0) {
+        levelOffsets[distance + 1]++;
+      }
+    }
+    for (int i = 0; i < levelCount; i++) {
+      levelOffsets[i + 1] += levelOffsets[i];
+    }
+
+    final String[] labels = new String[levelOffsets[levelCount]];
+    final int[] next = Arrays.copyOf(levelOffsets, levelCount);
+    for (int vertex = 0; vertex < distances.length; vertex++) {
+      if (distances[vertex] >= 0) {
+        labels[next[distances[vertex]]++] = current.getLabel(vertex);
+      }
+    }
+
+    final StringBuilder sb = new StringBuilder(MessageCli.DISTANCES.getMessage(source));
+    sb.append(System.lineSeparator());
+
+    for (int distance = 0; distance < levelCount; distance++) {
+      sb.append("\t")
+          .append(distance)
+          .append(": ")
+          .append(
+              Arrays.toString(
+                  Arrays.copyOfRange(labels, levelOffsets[distance], levelOffsets[distance + 1])))
+          .append(System.lineSeparator());
+    }
+
+    System.out.print(sb.toString());
+  }
+
+  /**
+   * Prints the vertices in topological order, taking the smallest vertex available at each step, or
+   * a cycle that prevents the graph from being sorted.
+   */
+  public void printTopologicalSort() {
+    final CompactGraph current = compact();
+    final TopologicalSort sort = current.getTopologicalSort();
+
+    if (!sort.isAcyclic()) {
+      final StringBuilder cycle = new StringBuilder();
+
+      for (final int vertex : sort.getCycle()) {
+        if (cycle.length() > 0) {
+          cycle.append(" -> ");
+        }
+        cycle.append(current.getLabel(vertex));
+      }
+
+      MessageCli.GRAPH_CYCLIC.printMessage(cycle.toString());
+      return;
+    }
+
+    final int[] order = sort.getOrder();
+    final String[] labels = new String[order.length];
+
+    for (int i = 0; i < order.length; i++) {
+      labels[i] = current.getLabel(order[i]);
+    }
+
+    System.out.println(Arrays.toString(labels));
+  }
+
+  /**
+   * Prints the strongly connected components of the graph in topological order, followed by the
+   * edges between them in the condensation of the graph.
+   */
+  public void printStronglyConnectedComponents() {
+    final CompactGraph source = compact();
+    final StronglyConnectedComponents components = source.getStronglyConnectedComponents();
+    final int count = components.getComponentCount();
+    final StringBuilder sb = new StringBuilder("Components:").append(System.lineSeparator());
+
+    // The components are numbered in reverse topological order, so list them from the last one.
+    for (int i = 0; i < count; i++) {
+      final int[] members = components.getMembers(count - 1 - i);
+      final String[] labels = new String[members.length];
+
+      for (int j = 0; j < members.length; j++) {
+        labels[j] = source.getLabel(members[j]);
+      }
+
+      sb.append("\t")
+          .append(i)
+          .append(": ")
+          .append(Arrays.toString(labels))
+          .append(System.lineSeparator());
+    }
+
+    sb.append(System.lineSeparator()).append("Condensation:").append(System.lineSeparator());
+
+    for (int i = 0; i < count; i++) {
+      final int[] successors = components.getSuccessors(count - 1 - i);
+
+      // Successors are in ascending order of their numbers, so descending order of their positions
+      for (int j = successors.length - 1; j >= 0; j--) {
+        sb.append("\t")
+            .append(i)
+            .append(" -> ")
+            .append(count - 1 - successors[j])
+            .append(System.lineSeparator());
+      }
+    }
+
+    System.out.print(sb.toString());
+  }
+
+  /**
+   * Prints whether there is a path from one vertex to another, answered by an index that is built
+   * by the first query and kept until the graph is edited.
+   *
+   * @param source The label of the vertex to start from.
+   * @param destination The label of the vertex to reach.
+   */
+  public void printReachable(final String source, final String destination) {
+    final CompactGraph current = compact();
+    final int from = current.indexOf(source);
+    final int to = current.indexOf(destination);
+
+    if (from < 0 || to < 0) {
+      MessageCli.VERTEX_NOT_FOUND.printMessage(from < 0 ? source : destination);
+      return;
+    }
+
+    if (!current.hasReachabilityIndex()) {
+      final long start = System.nanoTime();
+      final ReachabilityIndex index = current.getReachabilityIndex();
+      MessageCli.REACHABILITY_INDEX_BUILT.printMessage(
+          String.format("%.1f", (System.nanoTime() - start) / 1e6),
+          String.valueOf(index.getMemoryBytes()));
+    }
+
+    final long start = System.nanoTime();
+    final boolean isReachable = current.getReachabilityIndex().canReach(from, to);
+    final String micros = String.format("%.1f", (System.nanoTime() - start) / 1e3);
+
+    if (isReachable) {
+      MessageCli.REACHABLE.printMessage(source, destination, micros);
+    } else {
+      MessageCli.NOT_REACHABLE.printMessage(source, destination, micros);
+    }
+  }
+
+  /**
+   * Writes the transitive closure of the graph to a DOT file in the test cases folder.
+   *
+   * @param filename The name of the file to write.
+   */
+  public void writeTransitiveClosure(final String filename) {
+    writeDerivedGraph("closure", filename);
+  }
+
+  /**
+   * Writes a transitive reduction of the graph to a DOT file in the test cases folder.
+   *
+   * @param filename The name of the file to write.
+   */
+  public void writeTransitiveReduction(final String filename) {
+    writeDerivedGraph("reduction", filename);
+  }
+
+  private void writeDerivedGraph(final String kind, final String filename) {
+    final Path target = resolve(filename);
+
+    // Only a file in the test cases folder may be written, and not the one the graph was read from
+    if (target == null || target.equals(file)) {
+      MessageCli.FILE_NOT_WRITTEN.printMessage(filename);
+      return;
+    }
+
+    final ForkJoinPool pool = new ForkJoinPool(threads);
+    final CompactGraph result;
+
+    try {
+      final CompactGraph source = compact();
+      result =
+          kind.equals("closure")
+              ? source.getTransitiveClosure(pool)
+              : source.getTransitiveReduction(pool);
+    } catch (IllegalArgumentException e) {
+      MessageCli.GRAPH_TOO_LARGE.printMessage(kind);
+      return;
+    } finally {
+      pool.shutdown();
+    }
+
+    try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+      new DotWriter(writer).write(kind, result);
+    } catch (IOException e) {
+      MessageCli.FILE_NOT_WRITTEN.printMessage(filename);
+      return;
+    }
+
+    // A large result is also saved in the binary format, so opening it skips parsing the DOT text.
+    try {
+      if (Files.size(target) >= SNAPSHOT_MIN_SIZE) {
+        GraphSnapshot.write(result, target);
+      }
+    } catch (IOException e) {
+      // The snapshot is only a cache, as when a file is opened.
+    }
+
+    MessageCli.GRAPH_WRITTEN.printMessage(
+        kind, String.valueOf(result.getEdgeCount()), TESTCASES.relativize(target).toString());
+  }
+
+  /**
+   * Resolves the name of a file in the test cases folder.
+   *
+   * @param filename The name of the file.
+   * @return The path of the file, or {@code null} if the name leads outside the test cases folder.
+   */
+  private static Path resolve(final String filename) {
+    final Path path = TESTCASES.resolve(filename).normalize();
+    return path.startsWith(TESTCASES) && !path.equals(TESTCASES) ? path : null;
+  }
+
+  private CompactGraph compact() {
+    if (edited == null) {
+      return graph;
+    } else if (packed != null) {
+      return packed;
+    }
+
+    // The edits are only held in the editable copy, so pack it back into int rows
+    final CompactGraphBuilder builder = new CompactGraphBuilder();
+
+    for (final String vertex : edited.getVertices()) {
+      builder.addVertex(vertex);
+
+      for (final String destination : edited.getSuccessors(vertex)) {
+        builder.addEdge(vertex, destination);
+      }
+    }
+
+    packed = builder.build();
+    return packed;
   }
 
   /**
@@ -0,0 +1,203 @@
+package nz.ac.auckland.se281;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Serves graph calculator sessions over a local TCP or Unix domain socket, so that clients can
+ * query graphs that stay loaded between their commands and between clients.
+ *
+ * <p>Each connection is a session with a calculator of its own, as if it were a separate run of
+ * {@link Main}. The client sends one command per line, and the response to each is a frame: a line
+ * holding the number of lines of output, followed by those lines. A session ends when it exits or
+ * the client disconnects.
+ *
+ * <p>Files are opened through a {@link GraphCache}, so a graph is only parsed by the first session
+ * that opens it, and the sessions that share a graph take turns to run commands on it while the
+ * rest run in parallel. Each session is served on its own thread from a cached pool, since it
+ * spends most of its time blocked waiting for the next command.
+ */
+public class GraphServer implements Closeable {
+  private final SocketAddress address;
+
+  private final GraphCache cache = new GraphCache();
+
+  private final ExecutorService sessions = Executors.newCachedThreadPool();
+
+  private final Set<SocketChannel> clients = ConcurrentHashMap.newKeySet();
+
+  private ServerSocketChannel server;
+
+  private PrintStream console;
+
+  private SessionOutput output;
+
+  /**
+   * Creates a server that will listen on the given address.
+   *
+   * <p>Sessions are not authenticated and can write files, so a TCP address must be on the loopback
+   * interface, where only this machine can connect to it.
+   *
+   * @param address A TCP address on the loopback interface, or the path of a Unix domain socket
+   *     that does not exist yet.
+   * @throws IllegalArgumentException If the address is a TCP address that is not a loopback one.
+   */
+  public GraphServer(final SocketAddress address) {
+    if (address instanceof InetSocketAddress) {
+      final InetAddress host = ((InetSocketAddress) address).getAddress();
+
+      if (host == null || !host.isLoopbackAddress()) {
+        throw new IllegalArgumentException("Not a loopback address: " + address);
+      }
+    }
+
+    this.address = address;
+  }
+
+  /**
+   * Binds the server to its address, and sends what each session prints to that session from now
+   * on.
+   *
+   * @return The address the server is bound to, with the port filled in if it was 0.
+   * @throws IOException If the server cannot be bound to the address.
+   */
+  public SocketAddress start() throws IOException {
+    server =
+        address instanceof UnixDomainSocketAddress
+            ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+            : ServerSocketChannel.open();
+    server.bind(address);
+
+    console = System.out;
+    output = new SessionOutput(console);
+    System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+
+    return server.getLocalAddress();
+  }
+
+  /** Accepts clients and starts a session for each one, until the server is closed. */
+  public void serve() {
+    try {
+      while (true) {
+        final SocketChannel client = server.accept();
+        clients.add(client);
+        sessions.execute(() -> runSession(client));
+      }
+    } catch (ClosedChannelException e) {
+      // The server was closed, so there are no more clients to accept
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Stops accepting clients, disconnects every session and restores the console. */
+  @Override
+  public void close() {
+    closeQuietly(server);
+    for (final SocketChannel client : clients) {
+      closeQuietly(client);
+    }
+    sessions.shutdown();
+
+    if (console != null) {
+      System.setOut(console);
+    }
+
+    if (address instanceof UnixDomainSocketAddress) {
+      try {
+        Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+      } catch (IOException e) {
+        // A socket file that is left behind only stops the next server from binding to it
+      }
+    }
+  }
+
+  private void runSession(final SocketChannel client) {
+    final Main session = new Main(null, cache);
+    final ByteArrayOutputStream response = new ByteArrayOutputStream();
+    output.attach(response);
+
+    try (client;
+        BufferedReader in =
+            new BufferedReader(
+                new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+        Writer out =
+            new BufferedWriter(
+                new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+      boolean isRunning = true;
+      String command;
+
+      while (isRunning && (command = in.readLine()) != null) {
+        response.reset();
+
+        try {
+          isRunning = session.runSharedCommand(command);
+        } catch (RuntimeException e) {
+          // A command that fails only ends its own frame, so the client can carry on
+          MessageCli.COMMAND_FAILED.printMessage(e.toString());
+        }
+
+        writeFrame(out, response.toString(StandardCharsets.UTF_8));
+        out.flush();
+      }
+    } catch (IOException e) {
+      // The client has gone, so there is no one left to answer
+    } catch (Error e) {
+      // The error may have left a shared graph half changed, so no session can safely carry on
+      close();
+      throw e;
+    } finally {
+      session.release();
+      output.detach();
+      clients.remove(client);
+    }
+  }
+
+  private static void writeFrame(final Writer out, final String text) throws IOException {
+    final List<String> lines = text.lines().collect(Collectors.toList());
+
+    out.write(String.valueOf(lines.size()));
+    out.write('\n');
+    for (final String line : lines) {
+      out.write(line);
+      out.write('\n');
+    }
+  }
+
+  private static void closeQuietly(final Closeable closeable) {
+    if (closeable == null) {
+      return;
+    }
+
+    try {
+      closeable.close();
+    } catch (IOException e) {
+      // There is nothing left to do with a socket that cannot be closed
+    }
+  }
+}
@@ -1,6 +1,20 @@
 package nz.ac.auckland.se281;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -11,8 +25,63 @@ import java.util.Scanner;
 public class Main {
   private static final String COMMAND_PREFIX = "graph-calculator> ";
 
+  private static final String COMMENT_PREFIX = "#";
+
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Starts the command line interface. With no arguments it prompts for one command at a time.
+   * With {@code --batch} it runs every command read from standard input, and with {@code --script
+   * <FILE>} every command in the file, as {@link #runBatch} describes. With {@code --server
+   * <PORT|PATH>} it serves sessions on a loopback TCP port or a Unix domain socket, as {@link
+   * GraphServer} describes, until the process is stopped.
+   *
+   * @param args The command line arguments.
+   */
   public static void main(final String[] args) {
-    new Main(new Scanner(System.in)).start();
+    if (args.length == 2 && args[0].equals("--server")) {
+      serve(args[1]);
+      return;
+    }
+
+    final Main main = new Main(new Scanner(System.in));
+    final boolean isBatch = args.length == 1 && args[0].equals("--batch");
+    final boolean isScript = args.length == 2 && args[0].equals("--script");
+
+    if (!isBatch && !isScript) {
+      main.start();
+      return;
+    }
+
+    final String source = isScript ? "'" + args[1] + "'" : "standard input";
+
+    try (BufferedReader reader =
+        isScript
+            ? Files.newBufferedReader(Path.of(args[1]))
+            : new BufferedReader(new InputStreamReader(System.in))) {
+      main.runBatch(reader);
+    } catch (IOException e) {
+      MessageCli.COMMANDS_NOT_READ.printMessage(source);
+    }
+  }
+
+  private static void serve(final String where) {
+    final SocketAddress address =
+        where.matches("\\d+")
+            ? new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(where))
+            : UnixDomainSocketAddress.of(where);
+    final GraphServer server = new GraphServer(address);
+
+    try {
+      MessageCli.SERVER_STARTED.printMessage(server.start().toString());
+    } catch (IOException e) {
+      MessageCli.SERVER_NOT_STARTED.printMessage(where);
+      return;
+    }
+
+    // Remove a Unix domain socket's file when the process is stopped
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+    server.serve();
   }
 
   /**
@@ -44,6 +113,8 @@ public class Main {
 
   private final Scanner scanner;
 
+  private final GraphCache cache;
+
   private GraphCalculator calculator;
 
   /**
@@ -52,7 +123,19 @@ public class Main {
    * @param scanner The scanner to read user input from.
    */
   public Main(final Scanner scanner) {
+    this(scanner, new GraphCache());
+  }
+
+  /**
+   * Create a new command line interface that opens files through a workspace, which may be shared
+   * with other sessions.
+   *
+   * @param scanner The scanner to read user input from, or {@code null} if commands are passed in.
+   * @param cache The workspace to open files through.
+   */
+  Main(final Scanner scanner, final GraphCache cache) {
     this.scanner = scanner;
+    this.cache = cache;
   }
 
   /** Process commands from the user for the graph calculator command line interface. */
@@ -68,6 +151,80 @@ public class Main {
     } while (processCommand(command));
   }
 
+  /**
+   * Runs every command from a reader without prompting, until the input ends or a command exits.
+   *
+   * <p>The commands are all read and split into arguments before the first one runs. Neither the
+   * help menu nor the prompt is printed, blank lines and lines starting with {@code #} are skipped,
+   * and the output is buffered and only written out when it fills the buffer or the batch ends. The
+   * time taken by each kind of command is then reported on standard error, so it stays apart from
+   * the output of the commands.
+   *
+   * @param reader The reader to read the commands from, one per line.
+   * @throws IOException If the commands cannot be read.
+   */
+  public void runBatch(final BufferedReader reader) throws IOException {
+    final List<String[]> commands = new ArrayList<>();
+    String line;
+
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+
+      if (!line.isEmpty() && !line.startsWith(COMMENT_PREFIX)) {
+        commands.add(line.split(" "));
+      }
+    }
+
+    final PrintStream console = System.out;
+    final PrintStream buffered =
+        new PrintStream(new BufferedOutputStream(console, OUTPUT_BUFFER_SIZE), false);
+    final CommandTimings timings = new CommandTimings();
+    final long start = System.nanoTime();
+
+    System.setOut(buffered);
+    try {
+      for (final String[] args : commands) {
+        final long commandStart = System.nanoTime();
+        final boolean isRunning = processCommand(args);
+        timings.record(findCommand(args[0]), System.nanoTime() - commandStart);
+
+        if (!isRunning) {
+          break;
+        }
+      }
+    } finally {
+      buffered.flush();
+      System.setOut(console);
+    }
+
+    timings.print(System.err, System.nanoTime() - start);
+  }
+
+  /** Stops using the graph that is open, so that the workspace can forget it once it is unused. */
+  void release() {
+    cache.release(calculator);
+    calculator = null;
+  }
+
+  /**
+   * Execute a command for a session of a {@link GraphServer}, holding the lock on the loaded graph
+   * so that no other session runs a command on it at the same time.
+   *
+   * @param input The command sent by the client.
+   * @return If the session should continue to wait for another command.
+   */
+  boolean runSharedCommand(final String input) {
+    final GraphCalculator current = calculator;
+
+    if (current == null) {
+      return processCommand(input);
+    }
+
+    synchronized (current.getSharedGraph()) {
+      return processCommand(input);
+    }
+  }
+
   /**
    * Execute a command entered by the user and determine if more commands are expected.
    *
@@ -76,20 +233,20 @@ public class Main {
    */
   private boolean processCommand(String input) {
     // Remove whitespace at the beginning and end of the input.
-    input = input.trim();
-
-    final String[] args = input.split(" ");
-
-    // Allow any case, and dashes to be used instead of underscores.
-    final String commandStr = args[0].toUpperCase().replaceAll("-", "_");
+    return processCommand(input.trim().split(" "));
+  }
 
-    final Command command;
+  /**
+   * Execute a command that has been split into its name and arguments.
+   *
+   * @param args The name of the command followed by its arguments.
+   * @return If the program should continue to wait for another command.
+   */
+  private boolean processCommand(final String[] args) {
+    final Command command = findCommand(args[0]);
 
-    try {
-      // Command names correspond to the enum names.
-      command = Command.valueOf(commandStr);
-    } catch (final Exception e) {
-      MessageCli.COMMAND_NOT_FOUND.printMessage(commandStr);
+    if (command == null) {
+      MessageCli.COMMAND_NOT_FOUND.printMessage(toCommandName(args[0]));
       return true;
     }
 
@@ -97,15 +254,17 @@ public class Main {
     if (!checkArgs(command, args)) {
       final String numCommandArgs = String.valueOf(command.getNumArgs());
       final String plural = command.getNumArgs() > 1 ? "s" : "";
-      MessageCli.WRONG_ARGUMENT_COUNT.printMessage(numCommandArgs, plural, commandStr);
+      MessageCli.WRONG_ARGUMENT_COUNT.printMessage(numCommandArgs, plural, command.name());
       return true;
     }
 
     // A file is only open if there is a calculator instance.
-    // The user cannot do anything other than open a file, exit,
-    // or get help if there is no file.
+    // The user cannot do anything other than open a file, use the workspace,
+    // exit, or get help if there is no file.
     if (calculator == null
         && command != Command.OPEN_FILE
+        && command != Command.USE
+        && command != Command.LIST_GRAPHS
         && command != Command.EXIT
         && command != Command.HELP) {
       MessageCli.FILE_NOT_OPEN.printMessage();
@@ -117,10 +276,17 @@ public class Main {
         final String filename = args[1];
 
         try {
-          calculator = new GraphCalculator(filename);
+          final GraphCalculator opened = cache.open(filename);
+          cache.release(calculator);
+          calculator = opened;
           MessageCli.OPENED_FILE_SUCCESSFULLY.printMessage(filename);
         } catch (FileNotFoundException e) {
           MessageCli.FILE_NOT_FOUND.printMessage(filename);
+        } catch (IllegalArgumentException e) {
+          // The file is not valid DOT, so the graph that was open before stays open
+          MessageCli.FILE_NOT_PARSED.printMessage(filename, e.getMessage());
+        } catch (UncheckedIOException e) {
+          MessageCli.FILE_NOT_READ.printMessage(filename);
         }
         break;
       case INFO:
@@ -162,6 +328,56 @@ public class Main {
       case GRAPH_SEARCH_RDFS:
         calculator.printRecursiveDepthFirstSearch();
         break;
+      case GRAPH_SEARCH_PBFS:
+        calculator.printParallelBreadthFirstSearch();
+        break;
+      case ADD_VERTEX:
+        calculator.addVertex(args[1]);
+        break;
+      case REMOVE_VERTEX:
+        calculator.removeVertex(args[1]);
+        break;
+      case ADD_EDGE:
+        calculator.addEdge(args[1], args[2]);
+        break;
+      case REMOVE_EDGE:
+        calculator.removeEdge(args[1], args[2]);
+        break;
+      case SHORTEST_PATH:
+        calculator.printShortestPath(args[1], args[2]);
+        break;
+      case DISTANCES:
+        calculator.printDistances(args[1]);
+        break;
+      case REACHABLE:
+        calculator.printReachable(args[1], args[2]);
+        break;
+      case TOPOLOGICAL_SORT:
+        calculator.printTopologicalSort();
+        break;
+      case LIST_COMPONENTS:
+        calculator.printStronglyConnectedComponents();
+        break;
+      case TRANSITIVE_CLOSURE:
+        calculator.writeTransitiveClosure(args[1]);
+        break;
+      case TRANSITIVE_REDUCTION:
+        calculator.writeTransitiveReduction(args[1]);
+        break;
+      case USE:
+        final GraphCalculator used = cache.use(args[1]);
+
+        if (used == null) {
+          MessageCli.GRAPH_NOT_LOADED.printMessage(args[1]);
+        } else {
+          cache.release(calculator);
+          calculator = used;
+          MessageCli.USING_GRAPH.printMessage(args[1]);
+        }
+        break;
+      case LIST_GRAPHS:
+        cache.printGraphs();
+        break;
       case EXIT:
         MessageCli.END.printMessage();
 
@@ -176,6 +392,26 @@ public class Main {
     return true;
   }
 
+  /**
+   * Find the command with the given name.
+   *
+   * @param name The name of the command as entered by the user.
+   * @return The command, or {@code null} if there is no command with that name.
+   */
+  private static Command findCommand(final String name) {
+    try {
+      // Command names correspond to the enum names.
+      return Command.valueOf(toCommandName(name));
+    } catch (final IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String toCommandName(final String name) {
+    // Allow any case, and dashes to be used instead of underscores.
+    return name.toUpperCase().replaceAll("-", "_");
+  }
+
   /**
    * Check that the correct number of arguments were provided for the command.
    *
@@ -0,0 +1,303 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import nz.ac.auckland.se281.datastructures.NumericGraphBuilder;
+
+/**
+ * A zero-copy loader for DOT files whose vertices are all plain integers.
+ *
+ * <p>The file is memory-mapped and its bytes are scanned in place, so integer vertex ids are
+ * accumulated digit by digit straight into {@code long}s and no {@code String} is created per
+ * token. Files larger than {@link #WINDOW_SIZE} are mapped one window at a time, and because the
+ * scanner is a byte-at-a-time state machine a token may straddle two windows.
+ *
+ * <p>Only the shape of the shipped test cases is accepted: a header up to the opening brace,
+ * integer edge chains and node statements separated by whitespace, semicolons or commas, and
+ * comments. Anything else, such as quoted ids, attributes or numbers with leading zeros, makes
+ * {@link #load} return {@code false} so that the caller can fall back to {@link DotParser}.
+ */
+public class MappedGraphLoader {
+  /** The largest region of the file that is mapped at once. */
+  public static final long WINDOW_SIZE = 1L << 30;
+
+  // Longer numbers could overflow a long.
+  private static final int MAX_DIGITS = 18;
+
+  private enum State {
+    HEADER,
+    BODY,
+    DONE
+  }
+
+  private enum Comment {
+    NONE,
+    SLASH,
+    LINE,
+    BLOCK,
+    BLOCK_STAR
+  }
+
+  private final NumericGraphBuilder builder;
+
+  private State state = State.HEADER;
+
+  private Comment comment = Comment.NONE;
+
+  private boolean isDashPending;
+
+  private boolean isInNumber;
+
+  private boolean isNegative;
+
+  private int digits;
+
+  private long value;
+
+  // The last vertex of the current statement, whether it still has no edge, and whether an arrow
+  // is waiting for its target.
+  private boolean hasPrevious;
+
+  private long previous;
+
+  private boolean isPreviousUnlinked;
+
+  private boolean isArrowPending;
+
+  /**
+   * Creates a new loader.
+   *
+   * @param builder The builder to add the vertices and edges to.
+   */
+  public MappedGraphLoader(final NumericGraphBuilder builder) {
+    this.builder = builder;
+  }
+
+  /**
+   * Memory-maps the file and adds every vertex and edge in it to the builder.
+   *
+   * @param file The DOT file to read.
+   * @return {@code true} if the whole file was loaded, or {@code false} if it uses syntax that this
+   *     loader does not accept. In that case the builder holds a partial graph and should be
+   *     discarded.
+   * @throws IOException If the file cannot be read.
+   */
+  public boolean load(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+
+      for (long start = 0; start < size; start += WINDOW_SIZE) {
+        final long length = Math.min(WINDOW_SIZE, size - start);
+
+        if (!scan(channel.map(FileChannel.MapMode.READ_ONLY, start, length))) {
+          return false;
+        }
+      }
+    }
+
+    return finish(true);
+  }
+
+  /** Starts scanning inside the braces, for a part of the file that comes after the header. */
+  void skipHeader() {
+    state = State.BODY;
+  }
+
+  /**
+   * Scans every remaining byte of the buffer.
+   *
+   * @param buffer The bytes to scan, which may end in the middle of a token.
+   * @return {@code false} if the bytes use syntax that this loader does not accept.
+   */
+  boolean scan(final ByteBuffer buffer) {
+    for (int i = buffer.position(); i < buffer.limit(); i++) {
+      if (!accept(buffer.get(i))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Flushes the final token and checks that the scanned text ended in a sensible place.
+   *
+   * @param isEndOfFile Whether the text ran to the end of the file, so the closing brace must have
+   *     been seen. Otherwise the text must end between two statements inside the braces.
+   * @return {@code true} if the text was complete.
+   */
+  boolean finish(final boolean isEndOfFile) {
+    if (!accept((byte) '\n')) {
+      return false;
+    }
+
+    if (isEndOfFile) {
+      return state == State.DONE;
+    }
+
+    endStatement();
+    return state == State.BODY && comment == Comment.NONE && !isArrowPending;
+  }
+
+  private boolean accept(final byte b) {
+    switch (comment) {
+      case LINE:
+        if (b == '\n') {
+          comment = Comment.NONE;
+        }
+        return true;
+      case BLOCK:
+        if (b == '*') {
+          comment = Comment.BLOCK_STAR;
+        }
+        return true;
+      case BLOCK_STAR:
+        comment = b == '/' ? Comment.NONE : b == '*' ? Comment.BLOCK_STAR : Comment.BLOCK;
+        return true;
+      case SLASH:
+        comment = b == '/' ? Comment.LINE : b == '*' ? Comment.BLOCK : Comment.NONE;
+        return comment != Comment.NONE;
+      default:
+        break;
+    }
+
+    if (isDashPending) {
+      isDashPending = false;
+
+      if (b == '>' || b == '-') {
+        return arrow();
+      } else if (b >= '0' && b <= '9') {
+        // The dash was the sign of a negative number.
+        startNumber(true);
+      } else if (state == State.BODY) {
+        return false;
+      }
+    }
+
+    if (b >= '0' && b <= '9') {
+      if (!isInNumber) {
+        startNumber(false);
+      } else if (digits == 1 && value == 0) {
+        // A leading zero would be lost when the label is printed again.
+        return false;
+      } else if (digits == MAX_DIGITS) {
+        return false;
+      }
+
+      value = value * 10 + (b - '0');
+      digits++;
+      return true;
+    }
+
+    if (!endNumber()) {
+      return false;
+    }
+
+    switch (b) {
+      case ' ':
+      case '\t':
+      case '\r':
+      case '\n':
+        return true;
+      case '/':
+        comment = Comment.SLASH;
+        return true;
+      case '#':
+        comment = Comment.LINE;
+        return true;
+      case '-':
+        isDashPending = true;
+        return true;
+      case ';':
+      case ',':
+        if (state != State.BODY) {
+          return true;
+        }
+        endStatement();
+        return !isArrowPending;
+      case '{':
+        if (state != State.HEADER) {
+          return false;
+        }
+        state = State.BODY;
+        return true;
+      case '}':
+        if (state != State.BODY) {
+          return false;
+        }
+        endStatement();
+        state = State.DONE;
+        return !isArrowPending;
+      default:
+        // Any other byte is part of the header or trailing text, or is syntax that only the full
+        // parser handles.
+        return state != State.BODY;
+    }
+  }
+
+  private void startNumber(final boolean negative) {
+    isInNumber = true;
+    isNegative = negative;
+    digits = 0;
+    value = 0;
+  }
+
+  private boolean endNumber() {
+    if (!isInNumber) {
+      return true;
+    }
+    isInNumber = false;
+
+    // Numbers only matter inside the braces, where they are vertices.
+    if (state != State.BODY) {
+      return true;
+    }
+
+    if (isNegative && value == 0) {
+      return false;
+    }
+
+    final long vertex = isNegative ? -value : value;
+
+    if (isArrowPending) {
+      builder.addEdge(previous, vertex);
+      isArrowPending = false;
+      isPreviousUnlinked = false;
+    } else {
+      // A new statement starts without a separator.
+      endStatement();
+      isPreviousUnlinked = true;
+    }
+
+    hasPrevious = true;
+    previous = vertex;
+    return true;
+  }
+
+  private void endStatement() {
+    // Only a vertex that never gained an edge has to be added on its own.
+    if (isPreviousUnlinked) {
+      builder.addVertex(previous);
+      isPreviousUnlinked = false;
+    }
+
+    hasPrevious = false;
+  }
+
+  private boolean arrow() {
+    if (state != State.BODY) {
+      return true;
+    }
+
+    if (!hasPrevious || isArrowPending) {
+      return false;
+    }
+
+    isArrowPending = true;
+    isPreviousUnlinked = false;
+    return true;
+  }
+}
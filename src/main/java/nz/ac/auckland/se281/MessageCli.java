@@ -1,5 +1,7 @@
 package nz.ac.auckland.se281;
 
+import java.util.regex.Matcher;
+
 /**
  * Templates of messages that can be printed to the CLI.
  *
@@ -15,6 +17,8 @@ public enum MessageCli {
   OPENED_FILE_SUCCESSFULLY("Successfully opened graph from file %s"),
   FILE_NOT_OPEN("Error: no valid file open"),
   FILE_NOT_FOUND("Error: file '%s' not found in `testcases` folder"),
+  FILE_NOT_PARSED("Error: file '%s' is not a valid graph. %s"),
+  FILE_NOT_READ("Error: file '%s' could not be read"),
   INFO("File name: %s"),
 
   GRAPH_REFLEXIVE("The graph is %sreflexive"),
@@ -23,6 +27,39 @@ public enum MessageCli {
   GRAPH_EQUIVALENCE("The graph is %san equivalence relation"),
   GRAPH_TRANSITIVE("The graph is %stransitive"),
 
+  VERTEX_ADDED("Added vertex %s"),
+  VERTEX_EXISTS("Vertex %s is already in the graph"),
+  VERTEX_REMOVED("Removed vertex %s"),
+  VERTEX_NOT_FOUND("Error: vertex %s is not in the graph"),
+  EDGE_ADDED("Added edge %s -> %s"),
+  EDGE_EXISTS("Edge %s -> %s is already in the graph"),
+  EDGE_REMOVED("Removed edge %s -> %s"),
+  EDGE_NOT_FOUND("Error: edge %s -> %s is not in the graph"),
+
+  SHORTEST_PATH("The shortest path from %s to %s has %s edges: %s"),
+  NO_PATH("There is no path from %s to %s"),
+  DISTANCES("Distances from %s:"),
+  GRAPH_CYCLIC("The graph is not acyclic, it has the cycle %s"),
+  REACHABLE("%s can reach %s (answered in %s microseconds)"),
+  NOT_REACHABLE("%s cannot reach %s (answered in %s microseconds)"),
+  REACHABILITY_INDEX_BUILT("Built the reachability index in %s ms, using %s bytes"),
+
+  GRAPH_WRITTEN("Wrote the transitive %s of the graph, with %s edges, to file %s"),
+  GRAPH_TOO_LARGE("Error: the transitive %s of the graph is too large to compute"),
+  FILE_NOT_WRITTEN("Error: file '%s' could not be written to `testcases` folder"),
+
+  USING_GRAPH("Using graph %s"),
+  GRAPH_NOT_LOADED("Error: graph '%s' is not loaded in the workspace"),
+  WORKSPACE("The workspace holds %s graph%s, using %s of %s bytes:"),
+  WORKSPACE_GRAPH("\t%s: %s bytes%s"),
+
+  COMMANDS_NOT_READ("Error: commands could not be read from %s"),
+  BATCH_FINISHED("Ran %s commands in %s ms (%s commands per second)"),
+  COMMAND_TIMING("\t%s: %s runs, %s us in total, %s us on average, %s us at most"),
+  SERVER_STARTED("Serving graph calculator sessions on %s"),
+  SERVER_NOT_STARTED("Error: could not serve sessions on %s"),
+  COMMAND_FAILED("Error: the command failed with %s"),
+
   END("You closed the terminal. Goodbye.");
 
   private final String msg;
@@ -47,7 +84,8 @@ public enum MessageCli {
     String tmpMessage = msg;
 
     for (final String arg : args) {
-      tmpMessage = tmpMessage.replaceFirst("%s", arg);
+      // A vertex label may contain a backslash or a dollar sign, which must be copied literally
+      tmpMessage = tmpMessage.replaceFirst("%s", Matcher.quoteReplacement(arg));
     }
 
     return tmpMessage;
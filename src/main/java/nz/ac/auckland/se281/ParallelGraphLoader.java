@@ -0,0 +1,179 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.NumericGraphBuilder;
+
+/**
+ * Loads a numeric DOT file on several threads.
+ *
+ * <p>The file is cut into chunks just after line breaks, and each chunk is mapped and scanned by
+ * its own {@link MappedGraphLoader} on a {@link ForkJoinPool}, buffering its edges in a private
+ * {@link NumericGraphBuilder}. The buffers are then concatenated, and the sort and deduplication
+ * that assign the vertex ids run in parallel on the same pool.
+ *
+ * <p>Every cut has to fall between two statements. If a statement or comment spans a cut, or the
+ * file uses syntax that the mapped loader does not accept, {@link #load} returns {@code null} so
+ * that the caller can fall back to a sequential load.
+ */
+public class ParallelGraphLoader {
+  /** The smallest chunk that is worth scanning in its own task. */
+  public static final long MIN_CHUNK_SIZE = 256 * 1024;
+
+  // How many chunks each thread gets, so that a slow chunk does not hold up the others
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  // How far ahead to read at a time when looking for the line break after a cut
+  private static final int SEEK_SIZE = 4096;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a new loader.
+   *
+   * @param pool The pool to scan the chunks and build the graph in.
+   */
+  public ParallelGraphLoader(final ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Loads the graph in the file.
+   *
+   * @param file The DOT file to read.
+   * @return The graph, or {@code null} if the file could not be split or uses syntax that the
+   *     mapped loader does not accept.
+   * @throws IOException If the file cannot be read.
+   */
+  public CompactGraph load(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long[] cuts = findCuts(channel);
+      final ChunkTask[] tasks = new ChunkTask[cuts.length - 1];
+
+      for (int i = 0; i < tasks.length; i++) {
+        tasks[i] = new ChunkTask(channel, cuts[i], cuts[i + 1], i == 0, i == tasks.length - 1);
+      }
+
+      return pool.submit(() -> build(tasks)).join();
+    }
+  }
+
+  private CompactGraph build(final ChunkTask[] tasks) {
+    ForkJoinTask.invokeAll(tasks);
+
+    final NumericGraphBuilder builder = new NumericGraphBuilder();
+
+    for (final ChunkTask task : tasks) {
+      final NumericGraphBuilder chunk = task.join();
+
+      if (chunk == null) {
+        return null;
+      }
+
+      builder.addAll(chunk);
+    }
+
+    return builder.build(true);
+  }
+
+  private long[] findCuts(final FileChannel channel) throws IOException {
+    final long size = channel.size();
+
+    // Enough chunks to keep every thread busy, but none smaller than the minimum or too big to map
+    long chunkCount = (long) pool.getParallelism() * CHUNKS_PER_THREAD;
+    chunkCount = Math.min(chunkCount, Math.max(1, size / MIN_CHUNK_SIZE));
+    chunkCount = Math.max(chunkCount, size / MappedGraphLoader.WINDOW_SIZE + 1);
+
+    final long[] cuts = new long[(int) chunkCount + 1];
+    int count = 1;
+
+    for (int i = 1; i < chunkCount; i++) {
+      final long cut = findLineStart(channel, Math.max(size * i / chunkCount, cuts[count - 1]));
+
+      if (cut >= size) {
+        break;
+      } else if (cut > cuts[count - 1]) {
+        cuts[count++] = cut;
+      }
+    }
+
+    cuts[count++] = size;
+    return Arrays.copyOf(cuts, count);
+  }
+
+  private long findLineStart(final FileChannel channel, long position) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(SEEK_SIZE);
+
+    while (true) {
+      buffer.clear();
+      final int read = channel.read(buffer, position);
+
+      if (read <= 0) {
+        return channel.size();
+      }
+
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+
+      position += read;
+    }
+  }
+
+  /** Scans one chunk of the file into its own builder. */
+  private static class ChunkTask extends RecursiveTask<NumericGraphBuilder> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient FileChannel channel;
+    private final long start;
+    private final long end;
+    private final boolean isFirst;
+    private final boolean isLast;
+
+    ChunkTask(
+        final FileChannel channel,
+        final long start,
+        final long end,
+        final boolean isFirst,
+        final boolean isLast) {
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+      this.isFirst = isFirst;
+      this.isLast = isLast;
+    }
+
+    @Override
+    protected NumericGraphBuilder compute() {
+      final NumericGraphBuilder builder = new NumericGraphBuilder();
+      final MappedGraphLoader loader = new MappedGraphLoader(builder);
+
+      // Only the first chunk holds the header.
+      if (!isFirst) {
+        loader.skipHeader();
+      }
+
+      try {
+        if (start < end
+            && !loader.scan(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start))) {
+          return null;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      return loader.finish(isLast) ? builder : null;
+    }
+  }
+}
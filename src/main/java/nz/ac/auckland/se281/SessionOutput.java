@@ -0,0 +1,60 @@
+package nz.ac.auckland.se281;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Sends what each thread writes to the stream attached to that thread, or to the console if none
+ * is.
+ *
+ * <p>Commands print their results to {@link System#out}, so a {@link GraphServer} installs this
+ * behind it and attaches a buffer to each session's thread to collect that session's responses.
+ */
+class SessionOutput extends OutputStream {
+  private final OutputStream console;
+
+  private final ThreadLocal<OutputStream> attached = new ThreadLocal<>();
+
+  /**
+   * Creates an output that writes to the console until a stream is attached.
+   *
+   * @param console The stream for threads that have no stream attached.
+   */
+  SessionOutput(final OutputStream console) {
+    this.console = console;
+  }
+
+  /**
+   * Sends everything the current thread writes to the given stream, until it is detached.
+   *
+   * @param out The stream to write to.
+   */
+  void attach(final OutputStream out) {
+    attached.set(out);
+  }
+
+  /** Sends what the current thread writes back to the console. */
+  void detach() {
+    attached.remove();
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    current().write(b);
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    current().write(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    current().flush();
+  }
+
+  private OutputStream current() {
+    final OutputStream out = attached.get();
+    return out != null ? out : console;
+  }
+}
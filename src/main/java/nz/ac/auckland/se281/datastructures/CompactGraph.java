@@ -0,0 +1,748 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A directed graph whose vertices are interned to dense int ids and whose edges are stored in
+ * compressed sparse row (CSR) form.
+ *
+ * <p>The successors of vertex {@code v} are {@code targets[offsets[v]]} to {@code
+ * targets[offsets[v + 1] - 1]}, sorted in ascending order, and the predecessors are stored the same
+ * way in a reverse CSR. Vertex ids follow the order of the vertex labels, so iterating ids in
+ * ascending order visits the vertices in numerical order. Each edge costs 4 bytes in each
+ * direction.
+ *
+ * <p>This class provides the same property checks and searches as {@link Graph}, and is built with
+ * a {@link CompactGraphBuilder}.
+ */
+public class CompactGraph implements DirectedGraph<String> {
+  // The String object, the header of its byte array and the reference to it, on a 64-bit virtual
+  // machine with compressed references, on top of one byte per character of the label
+  private static final int LABEL_OVERHEAD_BYTES = 24 + 16 + 4;
+
+  private String[] labels;
+  private long[] keys;
+  private int[] offsets;
+  private int[] targets;
+  private int[] reverseOffsets;
+  private int[] sources;
+  private RelationProfile<String> profile;
+  private EquivalencePartition partition;
+  private StronglyConnectedComponents components;
+  private ReachabilityIndex reachability;
+  private ShortestPaths shortestPaths;
+
+  // Weighed again each time an index is cached, so that other threads can read it without a lock
+  private volatile long memoryBytes;
+
+  /**
+   * Constructs a compact graph from rows that are already sorted and free of duplicates.
+   *
+   * @param labels The label of each vertex, indexed by id.
+   * @param keys The numeric value of each label, or {@code null} if the labels are not numbers.
+   * @param offsets The start of each vertex's row in {@code targets}, with a final end entry.
+   * @param targets The destinations of all edges, grouped by source.
+   */
+  CompactGraph(String[] labels, long[] keys, int[] offsets, int[] targets) {
+    this.labels = labels;
+    this.keys = keys;
+    this.offsets = offsets;
+    this.targets = targets;
+    buildReverse();
+    weigh();
+  }
+
+  /**
+   * Constructs a compact graph whose reverse rows, and possibly relation profile, are already
+   * known, such as one read back from a {@link GraphSnapshot}.
+   *
+   * @param labels The label of each vertex, indexed by id.
+   * @param keys The numeric value of each label, or {@code null} if the labels are not numbers.
+   * @param offsets The start of each vertex's row in {@code targets}, with a final end entry.
+   * @param targets The destinations of all edges, grouped by source.
+   * @param reverseOffsets The start of each vertex's row in {@code sources}, with a final end entry.
+   * @param sources The sources of all edges, grouped by destination.
+   * @param profile The relation profile, or {@code null} if it has not been computed.
+   */
+  CompactGraph(
+      String[] labels,
+      long[] keys,
+      int[] offsets,
+      int[] targets,
+      int[] reverseOffsets,
+      int[] sources,
+      RelationProfile<String> profile) {
+    this.labels = labels;
+    this.keys = keys;
+    this.offsets = offsets;
+    this.targets = targets;
+    this.reverseOffsets = reverseOffsets;
+    this.sources = sources;
+    this.profile = profile;
+    weigh();
+  }
+
+  /**
+   * Constructs a compact graph from a list of edges between vertex ids.
+   *
+   * <p>The edges may be in any order and may contain duplicates. They are grouped into rows with a
+   * counting sort, then each row is sorted and its duplicates removed.
+   *
+   * @param labels The label of each vertex, indexed by id.
+   * @param keys The numeric value of each label, or {@code null} if the labels are not numbers.
+   * @param edgeSources The id of the source of each edge.
+   * @param edgeDestinations The id of the destination of each edge.
+   * @param edgeCount The number of edges in the two arrays.
+   * @return The compact graph.
+   */
+  static CompactGraph fromEdges(
+      String[] labels, long[] keys, int[] edgeSources, int[] edgeDestinations, int edgeCount) {
+    int vertexCount = labels.length;
+
+    // Count the out-degree of each vertex to size the rows
+    int[] offsets = new int[vertexCount + 1];
+    for (int i = 0; i < edgeCount; i++) {
+      offsets[edgeSources[i] + 1]++;
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+
+    // Place each destination into the row of its source
+    int[] targets = new int[edgeCount];
+    int[] next = Arrays.copyOf(offsets, vertexCount);
+    for (int i = 0; i < edgeCount; i++) {
+      targets[next[edgeSources[i]]++] = edgeDestinations[i];
+    }
+
+    // Sort each row and squeeze out duplicate edges
+    int written = 0;
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      int start = offsets[vertex];
+      int end = offsets[vertex + 1];
+      Arrays.sort(targets, start, end);
+      offsets[vertex] = written;
+
+      for (int i = start; i < end; i++) {
+        if (i == start || targets[i] != targets[i - 1]) {
+          targets[written++] = targets[i];
+        }
+      }
+    }
+    offsets[vertexCount] = written;
+
+    return new CompactGraph(labels, keys, offsets, Arrays.copyOf(targets, written));
+  }
+
+  /**
+   * Retrieves the number of vertices in the graph.
+   *
+   * @return The number of vertices.
+   */
+  public int getVertexCount() {
+    return labels.length;
+  }
+
+  /**
+   * Retrieves the number of distinct edges in the graph.
+   *
+   * @return The number of edges.
+   */
+  public int getEdgeCount() {
+    return targets.length;
+  }
+
+  /**
+   * Retrieves the label of a vertex.
+   *
+   * @param vertex The id of the vertex.
+   * @return The label of the vertex.
+   */
+  public String getLabel(int vertex) {
+    return labels[vertex];
+  }
+
+  /**
+   * Finds the id of the vertex with the given label.
+   *
+   * @param label The label of the vertex.
+   * @return The id of the vertex, or -1 if there is no such vertex.
+   */
+  public int indexOf(String label) {
+    if (keys == null) {
+      int index = Arrays.binarySearch(labels, label);
+      return index < 0 ? -1 : index;
+    }
+
+    long key;
+    try {
+      key = Long.parseLong(label);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+
+    int index = Arrays.binarySearch(keys, key);
+    if (index < 0) {
+      return -1;
+    }
+
+    // Labels such as "1" and "01" share a key, so look either side for the exact label
+    while (index > 0 && keys[index - 1] == key) {
+      index--;
+    }
+    for (; index < keys.length && keys[index] == key; index++) {
+      if (labels[index].equals(label)) {
+        return index;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Checks if there is an edge from one vertex to another.
+   *
+   * @param source The id of the source vertex.
+   * @param destination The id of the destination vertex.
+   * @return {@code true} if the edge exists, {@code false} otherwise.
+   */
+  public boolean hasEdge(int source, int destination) {
+    return Arrays.binarySearch(targets, offsets[source], offsets[source + 1], destination) >= 0;
+  }
+
+  /**
+   * Retrieves the successors of a vertex.
+   *
+   * @param vertex The id of the vertex.
+   * @return A copy of the ids of its successors in ascending order.
+   */
+  public int[] getSuccessors(int vertex) {
+    return Arrays.copyOfRange(targets, offsets[vertex], offsets[vertex + 1]);
+  }
+
+  /**
+   * Retrieves the number of edges leaving a vertex.
+   *
+   * @param vertex The id of the vertex.
+   * @return The out-degree of the vertex.
+   */
+  public int getOutDegree(int vertex) {
+    return offsets[vertex + 1] - offsets[vertex];
+  }
+
+  /**
+   * Retrieves the number of edges entering a vertex.
+   *
+   * @param vertex The id of the vertex.
+   * @return The in-degree of the vertex.
+   */
+  public int getInDegree(int vertex) {
+    return reverseOffsets[vertex + 1] - reverseOffsets[vertex];
+  }
+
+  String[] getLabels() {
+    return labels;
+  }
+
+  long[] getKeys() {
+    return keys;
+  }
+
+  int[] getOffsets() {
+    return offsets;
+  }
+
+  int[] getTargets() {
+    return targets;
+  }
+
+  int[] getReverseOffsets() {
+    return reverseOffsets;
+  }
+
+  int[] getSources() {
+    return sources;
+  }
+
+  /**
+   * Computes the transitive closure of the graph, filling blocks of its rows on a pool of threads.
+   *
+   * @param pool The pool to fill the rows in.
+   * @return A graph with the same vertices and an edge from A to B whenever B can be reached from A
+   *     by a path of one or more edges.
+   * @throws IllegalArgumentException If the closure is too large for arrays or the free heap.
+   */
+  public CompactGraph getTransitiveClosure(ForkJoinPool pool) {
+    return new TransitiveClosure(this, pool).closure();
+  }
+
+  /**
+   * Computes a transitive reduction of the graph, i.e. a graph with as few edges as possible that
+   * has the same transitive closure.
+   *
+   * @param pool The pool to fill the rows of the closure in.
+   * @return A graph with the same vertices and the edges of the reduction.
+   * @throws IllegalArgumentException If the closure is too large for arrays or the free heap.
+   */
+  public CompactGraph getTransitiveReduction(ForkJoinPool pool) {
+    return new TransitiveClosure(this, pool).reduction();
+  }
+
+  /**
+   * Copies the graph into a {@link Graph} that can be edited. The vertices keep their order, and if
+   * the labels are numbers, labels added later that are not numbers come after all of them.
+   *
+   * @return The editable copy of the graph.
+   */
+  public Graph<String> toGraph() {
+    Set<String> vertexSet = new LinkedHashSet<String>(Arrays.asList(labels));
+    Set<Edge<String>> edgeSet = new LinkedHashSet<Edge<String>>();
+
+    for (int source = 0; source < labels.length; source++) {
+      for (int i = offsets[source]; i < offsets[source + 1]; i++) {
+        edgeSet.add(new Edge<String>(labels[source], labels[targets[i]]));
+      }
+    }
+
+    // Labels added to an empty graph are ordered numerically, as for a new Graph
+    VertexOrder<String> order =
+        keys != null || labels.length == 0 ? VertexOrder.numeric() : VertexOrder.natural();
+    return new Graph<String>(vertexSet, edgeSet, order);
+  }
+
+  /**
+   * Retrieves the roots of the graph.
+   *
+   * <p>The roots are the vertices that have an in-degree of 0, or the minimum vertex of each
+   * equivalence class if the graph is an equivalence relation. The roots are returned in numerical
+   * order.
+   *
+   * @return The set of roots in the graph.
+   */
+  @Override
+  public Set<String> getRoots() {
+    return toLabelSet(findRoots());
+  }
+
+  /**
+   * Retrieves the relation properties of the graph.
+   *
+   * <p>All properties are found in one scan over the rows the first time this is called, and the
+   * result is kept since a compact graph never changes.
+   *
+   * @return The relation profile of the graph.
+   */
+  public RelationProfile<String> getProfile() {
+    if (profile == null) {
+      profile = analyse();
+    }
+
+    return profile;
+  }
+
+  /**
+   * Retrieves the relation properties of the graph, checking its edges on a pool of threads if they
+   * have not been found yet. The profile is the same as the one found by {@link #getProfile()}.
+   *
+   * @param pool The pool to check the edges in.
+   * @return The relation profile of the graph.
+   */
+  public RelationProfile<String> getProfile(ForkJoinPool pool) {
+    if (profile == null) {
+      profile = new ParallelProfiler(this, pool).analyse();
+    }
+
+    return profile;
+  }
+
+  /**
+   * Checks if the relation profile has already been computed, so that asking for it is free.
+   *
+   * @return {@code true} if the profile is cached, {@code false} otherwise.
+   */
+  public boolean isProfiled() {
+    return profile != null;
+  }
+
+  /**
+   * Checks if the graph is reflexive, i.e. every vertex has an edge to itself.
+   *
+   * @return {@code true} if the graph is reflexive, {@code false} otherwise.
+   */
+  @Override
+  public boolean isReflexive() {
+    return getProfile().isReflexive();
+  }
+
+  /**
+   * Checks if the graph is symmetric, i.e. for every edge A to B there is an edge B to A.
+   *
+   * @return {@code true} if the graph is symmetric, {@code false} otherwise.
+   */
+  @Override
+  public boolean isSymmetric() {
+    return getProfile().isSymmetric();
+  }
+
+  /**
+   * Checks if the graph is transitive, i.e. for every pair of edges A to B and B to C there is an
+   * edge A to C.
+   *
+   * @return {@code true} if the graph is transitive, {@code false} otherwise.
+   */
+  @Override
+  public boolean isTransitive() {
+    return getProfile().isTransitive();
+  }
+
+  /**
+   * Checks if the graph is antisymmetric, i.e. there are no two distinct vertices A and B with
+   * edges both from A to B and from B to A.
+   *
+   * @return {@code true} if the graph is antisymmetric, {@code false} otherwise.
+   */
+  @Override
+  public boolean isAntiSymmetric() {
+    return getProfile().isAntiSymmetric();
+  }
+
+  /**
+   * Checks if the graph is an equivalence relation, i.e. it is reflexive, symmetric and transitive.
+   *
+   * @return {@code true} if the graph is an equivalence relation, {@code false} otherwise.
+   */
+  @Override
+  public boolean isEquivalence() {
+    return getProfile().isEquivalence();
+  }
+
+  /**
+   * Retrieves the equivalence class of a vertex.
+   *
+   * @param vertex The label of the vertex.
+   * @return The vertices in the same class in numerical order, or an empty set if the graph is not
+   *     an equivalence relation or the vertex does not exist.
+   */
+  @Override
+  public Set<String> getEquivalenceClass(String vertex) {
+    int id = indexOf(vertex);
+
+    if (id < 0 || !isEquivalence()) {
+      return new LinkedHashSet<String>();
+    }
+
+    EquivalencePartition classes = getPartition();
+    return toLabelSet(classes.getMembers(classes.getClassId(id)));
+  }
+
+  /**
+   * Retrieves the equivalence classes of the graph, computing them the first time they are needed.
+   *
+   * @return The partition of the vertices into equivalence classes, or {@code null} if the graph is
+   *     not an equivalence relation.
+   */
+  public EquivalencePartition getPartition() {
+    if (partition == null && isEquivalence()) {
+      DisjointSet sets = new DisjointSet(labels.length);
+
+      for (int source = 0; source < labels.length; source++) {
+        for (int i = offsets[source]; i < offsets[source + 1]; i++) {
+          sets.union(source, targets[i]);
+        }
+      }
+
+      partition = new EquivalencePartition(sets);
+      weigh();
+    }
+
+    return partition;
+  }
+
+  /**
+   * Retrieves the strongly connected components of the graph, finding them the first time they are
+   * needed.
+   *
+   * @return The components, numbered in reverse topological order of the condensation.
+   */
+  public StronglyConnectedComponents getStronglyConnectedComponents() {
+    if (components == null) {
+      components = new StronglyConnectedComponents(offsets, targets);
+      weigh();
+    }
+
+    return components;
+  }
+
+  /**
+   * Retrieves the index that answers reachability queries, building it the first time it is
+   * needed.
+   *
+   * @return The reachability index of the graph.
+   */
+  public ReachabilityIndex getReachabilityIndex() {
+    if (reachability == null) {
+      reachability = new ReachabilityIndex(getStronglyConnectedComponents());
+      weigh();
+    }
+
+    return reachability;
+  }
+
+  /**
+   * Retrieves the searches that find unweighted shortest paths, creating them the first time they
+   * are needed. They keep their arrays between queries.
+   *
+   * @return The shortest path searches of the graph.
+   */
+  public ShortestPaths getShortestPaths() {
+    if (shortestPaths == null) {
+      shortestPaths = new ShortestPaths(offsets, targets, reverseOffsets, sources);
+      weigh();
+    }
+
+    return shortestPaths;
+  }
+
+  /**
+   * Sorts the vertices topologically, or finds a cycle if that is not possible.
+   *
+   * @return The result of Kahn's algorithm on the graph.
+   */
+  public TopologicalSort getTopologicalSort() {
+    return new TopologicalSort(offsets, targets, reverseOffsets, sources);
+  }
+
+  /**
+   * Checks whether the index that answers reachability queries has already been built.
+   *
+   * @return {@code true} if {@link #getReachabilityIndex()} will not need to build it.
+   */
+  public boolean hasReachabilityIndex() {
+    return reachability != null;
+  }
+
+  /**
+   * Estimates the memory held by the graph, including the indexes that it has built and cached so
+   * far. It can be read while another thread is building an index, which is only counted once it
+   * has been cached.
+   *
+   * @return An estimate of the size of the graph in bytes.
+   */
+  public long getMemoryBytes() {
+    return memoryBytes;
+  }
+
+  private void weigh() {
+    long ints = (long) offsets.length + targets.length + reverseOffsets.length + sources.length;
+    long bytes = Integer.BYTES * ints;
+
+    if (keys != null) {
+      bytes += (long) Long.BYTES * keys.length;
+    }
+    for (String label : labels) {
+      bytes += LABEL_OVERHEAD_BYTES + label.length();
+    }
+
+    if (partition != null) {
+      bytes += partition.getMemoryBytes();
+    }
+    // The reachability index includes the components that it was built from
+    if (reachability != null) {
+      bytes += reachability.getMemoryBytes();
+    } else if (components != null) {
+      bytes += components.getMemoryBytes();
+    }
+    if (shortestPaths != null) {
+      bytes += shortestPaths.getMemoryBytes();
+    }
+
+    memoryBytes = bytes;
+  }
+
+  /**
+   * Performs iterative breadth-first search from each root in numerical order.
+   *
+   * @return A list of vertices visited during the breadth-first search.
+   */
+  @Override
+  public List<String> iterativeBreadthFirstSearch() {
+    return toLabelList(new GraphSearch(offsets, targets).breadthFirst(findRoots()));
+  }
+
+  /**
+   * Performs recursive breadth-first search from each root in numerical order.
+   *
+   * @return A list of vertices visited during the breadth-first search.
+   */
+  @Override
+  public List<String> recursiveBreadthFirstSearch() {
+    return toLabelList(new GraphSearch(offsets, targets).recursiveBreadthFirst(findRoots()));
+  }
+
+  /**
+   * Performs breadth-first search from each root in numerical order, expanding each level of the
+   * search on a pool of threads. The vertices are visited in the same order as {@link
+   * #iterativeBreadthFirstSearch}.
+   *
+   * @param pool The pool to expand the levels in.
+   * @return A list of vertices visited during the breadth-first search.
+   */
+  public List<String> parallelBreadthFirstSearch(ForkJoinPool pool) {
+    return toLabelList(new ParallelGraphSearch(offsets, targets, pool).breadthFirst(findRoots()));
+  }
+
+  /**
+   * Performs iterative depth-first search from each root in numerical order.
+   *
+   * @return A list of vertices visited during the depth-first search.
+   */
+  @Override
+  public List<String> iterativeDepthFirstSearch() {
+    return toLabelList(new GraphSearch(offsets, targets).depthFirst(findRoots()));
+  }
+
+  /**
+   * Performs recursive depth-first search from each root in numerical order.
+   *
+   * @return A list of vertices visited during the depth-first search.
+   */
+  @Override
+  public List<String> recursiveDepthFirstSearch() {
+    return toLabelList(new GraphSearch(offsets, targets).recursiveDepthFirst(findRoots()));
+  }
+
+  private List<String> toLabelList(int[] vertices) {
+    List<String> result = new ArrayList<String>(vertices.length);
+
+    for (int vertex : vertices) {
+      result.add(labels[vertex]);
+    }
+
+    return result;
+  }
+
+  private int[] findRoots() {
+    boolean[] isRoot = new boolean[labels.length];
+    int count = 0;
+
+    for (int vertex = 0; vertex < labels.length; vertex++) {
+      if (getInDegree(vertex) == 0) {
+        isRoot[vertex] = true;
+        count++;
+      }
+    }
+
+    // Add the minimum of each equivalence class
+    if (isEquivalence()) {
+      EquivalencePartition classes = getPartition();
+
+      for (int classId = 0; classId < classes.getClassCount(); classId++) {
+        int minimum = classes.getMinimum(classId);
+        if (!isRoot[minimum]) {
+          isRoot[minimum] = true;
+          count++;
+        }
+      }
+    }
+
+    int[] roots = new int[count];
+    int written = 0;
+    for (int vertex = 0; vertex < labels.length; vertex++) {
+      if (isRoot[vertex]) {
+        roots[written++] = vertex;
+      }
+    }
+
+    return roots;
+  }
+
+  private RelationProfile<String> analyse() {
+    // The checker picks bitsets or row merging depending on the size and density of the graph
+    TransitivityChecker checker = new TransitivityChecker(this);
+    Edge<String> missingSelfLoop = null;
+    Edge<String> unreturnedEdge = null;
+    Edge<String> returnedEdge = null;
+    Edge<String> missingTransitiveEdge = null;
+    String transitiveIntermediate = null;
+
+    for (int source = 0; source < labels.length; source++) {
+      boolean hasSelfLoop = false;
+
+      for (int i = offsets[source]; i < offsets[source + 1]; i++) {
+        int destination = targets[i];
+
+        if (destination == source) {
+          hasSelfLoop = true;
+          continue;
+        }
+
+        // One reverse lookup answers both symmetry and antisymmetry for this edge
+        if (unreturnedEdge == null || returnedEdge == null) {
+          boolean isReturned = hasEdge(destination, source);
+
+          if (!isReturned && unreturnedEdge == null) {
+            unreturnedEdge = toEdge(source, destination);
+          } else if (isReturned && returnedEdge == null) {
+            returnedEdge = toEdge(source, destination);
+          }
+        }
+
+        if (missingTransitiveEdge == null) {
+          int missing = checker.findMissingSuccessor(source, destination);
+
+          if (missing >= 0) {
+            missingTransitiveEdge = toEdge(source, missing);
+            transitiveIntermediate = labels[destination];
+          }
+        }
+      }
+
+      if (!hasSelfLoop && missingSelfLoop == null) {
+        missingSelfLoop = toEdge(source, source);
+      }
+    }
+
+    return new RelationProfile<String>(
+        missingSelfLoop, unreturnedEdge, returnedEdge, missingTransitiveEdge, transitiveIntermediate);
+  }
+
+  private Edge<String> toEdge(int source, int destination) {
+    return new Edge<String>(labels[source], labels[destination]);
+  }
+
+  private Set<String> toLabelSet(int[] vertices) {
+    Set<String> result = new LinkedHashSet<String>();
+
+    for (int vertex : vertices) {
+      result.add(labels[vertex]);
+    }
+
+    return result;
+  }
+
+  private void buildReverse() {
+    int vertexCount = labels.length;
+    reverseOffsets = new int[vertexCount + 1];
+    sources = new int[targets.length];
+
+    for (int target : targets) {
+      reverseOffsets[target + 1]++;
+    }
+    for (int i = 0; i < vertexCount; i++) {
+      reverseOffsets[i + 1] += reverseOffsets[i];
+    }
+
+    // Walking sources in ascending order keeps every reverse row sorted
+    int[] next = Arrays.copyOf(reverseOffsets, vertexCount);
+    for (int source = 0; source < vertexCount; source++) {
+      for (int i = offsets[source]; i < offsets[source + 1]; i++) {
+        sources[next[targets[i]]++] = source;
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects vertices and edges and builds a {@link CompactGraph} from them.
+ *
+ * <p>Each vertex label is interned to an int the first time it is seen, so edges are buffered as
+ * two ints rather than as {@link Edge} objects. Duplicate edges are removed when the graph is built.
+ */
+public class CompactGraphBuilder {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private Map<String, Integer> interned;
+  private List<String> labels;
+  private int[] edgeSources;
+  private int[] edgeDestinations;
+  private int edgeCount;
+
+  /** Constructs an empty builder. */
+  public CompactGraphBuilder() {
+    this.interned = new HashMap<String, Integer>();
+    this.labels = new ArrayList<String>();
+    this.edgeSources = new int[INITIAL_CAPACITY];
+    this.edgeDestinations = new int[INITIAL_CAPACITY];
+    this.edgeCount = 0;
+  }
+
+  /**
+   * Adds a vertex to the graph if it has not been added before.
+   *
+   * @param label The label of the vertex.
+   * @return The temporary id of the vertex within this builder.
+   */
+  public int addVertex(String label) {
+    Integer id = interned.get(label);
+
+    if (id == null) {
+      id = labels.size();
+      interned.put(label, id);
+      labels.add(label);
+    }
+
+    return id;
+  }
+
+  /**
+   * Adds an edge to the graph, adding its source and destination vertices if needed.
+   *
+   * @param source The label of the source vertex.
+   * @param destination The label of the destination vertex.
+   */
+  public void addEdge(String source, String destination) {
+    addEdge(addVertex(source), addVertex(destination));
+  }
+
+  /**
+   * Adds an edge between two vertices that were already added to this builder.
+   *
+   * @param source The temporary id of the source vertex.
+   * @param destination The temporary id of the destination vertex.
+   */
+  public void addEdge(int source, int destination) {
+    if (edgeCount == edgeSources.length) {
+      edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+      edgeDestinations = Arrays.copyOf(edgeDestinations, edgeCount * 2);
+    }
+
+    edgeSources[edgeCount] = source;
+    edgeDestinations[edgeCount] = destination;
+    edgeCount++;
+  }
+
+  /**
+   * Builds the compact graph from the vertices and edges added so far.
+   *
+   * <p>Vertices are renumbered so that their ids follow the numerical order of their labels (or
+   * the natural order of the labels if any of them is not a number).
+   *
+   * @return The compact graph.
+   */
+  public CompactGraph build() {
+    int vertexCount = labels.size();
+    long[] keys = computeNumericKeys();
+    Integer[] order = new Integer[vertexCount];
+
+    for (int i = 0; i < vertexCount; i++) {
+      order[i] = i;
+    }
+
+    // Sort the temporary ids by their labels, comparing the precomputed keys where possible
+    Arrays.sort(
+        order,
+        (a, b) -> {
+          if (keys != null && keys[a] != keys[b]) {
+            return Long.compare(keys[a], keys[b]);
+          }
+          return labels.get(a).compareTo(labels.get(b));
+        });
+
+    String[] sortedLabels = new String[vertexCount];
+    long[] sortedKeys = keys == null ? null : new long[vertexCount];
+    int[] rank = new int[vertexCount];
+
+    for (int i = 0; i < vertexCount; i++) {
+      sortedLabels[i] = labels.get(order[i]);
+      rank[order[i]] = i;
+
+      if (keys != null) {
+        sortedKeys[i] = keys[order[i]];
+      }
+    }
+
+    // Renumber the buffered edges with the final ids
+    int[] sources = new int[edgeCount];
+    int[] destinations = new int[edgeCount];
+    for (int i = 0; i < edgeCount; i++) {
+      sources[i] = rank[edgeSources[i]];
+      destinations[i] = rank[edgeDestinations[i]];
+    }
+
+    return CompactGraph.fromEdges(sortedLabels, sortedKeys, sources, destinations, edgeCount);
+  }
+
+  private long[] computeNumericKeys() {
+    long[] keys = new long[labels.size()];
+
+    for (int i = 0; i < keys.length; i++) {
+      try {
+        keys[i] = Long.parseLong(labels.get(i));
+      } catch (NumberFormatException e) {
+        // At least one label is not a number, so fall back to ordering by the labels themselves
+        return null;
+      }
+    }
+
+    return keys;
+  }
+}
@@ -0,0 +1,29 @@
+package nz.ac.auckland.se281.datastructures;
+
+/**
+ * The default order of a {@link Graph} that starts without vertices, which is chosen the first time
+ * two vertices are compared: the numeric order of labels if they are {@link String}s, as for a
+ * graph that starts with labels, or else the natural order.
+ *
+ * @param <T> The type of each vertex.
+ */
+class DeferredVertexOrder<T extends Comparable<T>> implements VertexOrder<T> {
+  private VertexOrder<? super T> chosen;
+
+  @Override
+  public int compare(T first, T second) {
+    return choose(first).compare(first, second);
+  }
+
+  @SuppressWarnings("unchecked")
+  private VertexOrder<? super T> choose(T vertex) {
+    if (chosen == null) {
+      chosen =
+          vertex instanceof String
+              ? (VertexOrder<? super T>) (VertexOrder<?>) VertexOrder.numeric()
+              : VertexOrder.natural();
+    }
+
+    return chosen;
+  }
+}
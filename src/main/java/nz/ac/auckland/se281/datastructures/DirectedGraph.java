@@ -0,0 +1,94 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The property checks and searches that can be run on a directed graph, whether it is a {@link
+ * CompactGraph} loaded from a file or a {@link Graph} that can still be edited.
+ *
+ * @param <T> The type of each vertex.
+ */
+public interface DirectedGraph<T> {
+  /**
+   * Retrieves the roots of the graph, which are the vertices with an in-degree of 0, or the minimum
+   * vertex of each equivalence class if the graph is an equivalence relation.
+   *
+   * @return The set of roots in the graph, in the order of the vertices.
+   */
+  Set<T> getRoots();
+
+  /**
+   * Checks if the graph is reflexive, i.e. every vertex has an edge to itself.
+   *
+   * @return {@code true} if the graph is reflexive, {@code false} otherwise.
+   */
+  boolean isReflexive();
+
+  /**
+   * Checks if the graph is symmetric, i.e. for every edge A to B there is an edge B to A.
+   *
+   * @return {@code true} if the graph is symmetric, {@code false} otherwise.
+   */
+  boolean isSymmetric();
+
+  /**
+   * Checks if the graph is transitive, i.e. for every pair of edges A to B and B to C there is an
+   * edge A to C.
+   *
+   * @return {@code true} if the graph is transitive, {@code false} otherwise.
+   */
+  boolean isTransitive();
+
+  /**
+   * Checks if the graph is antisymmetric, i.e. there are no two distinct vertices A and B with
+   * edges both from A to B and from B to A.
+   *
+   * @return {@code true} if the graph is antisymmetric, {@code false} otherwise.
+   */
+  boolean isAntiSymmetric();
+
+  /**
+   * Checks if the graph is an equivalence relation, i.e. it is reflexive, symmetric and transitive.
+   *
+   * @return {@code true} if the graph is an equivalence relation, {@code false} otherwise.
+   */
+  boolean isEquivalence();
+
+  /**
+   * Retrieves the equivalence class of a vertex.
+   *
+   * @param vertex The vertex.
+   * @return The vertices in the same class in order, or an empty set if the graph is not an
+   *     equivalence relation or the vertex does not exist.
+   */
+  Set<T> getEquivalenceClass(T vertex);
+
+  /**
+   * Performs iterative breadth-first search from each root in order.
+   *
+   * @return A list of vertices visited during the breadth-first search.
+   */
+  List<T> iterativeBreadthFirstSearch();
+
+  /**
+   * Performs recursive breadth-first search from each root in order.
+   *
+   * @return A list of vertices visited during the breadth-first search.
+   */
+  List<T> recursiveBreadthFirstSearch();
+
+  /**
+   * Performs iterative depth-first search from each root in order.
+   *
+   * @return A list of vertices visited during the depth-first search.
+   */
+  List<T> iterativeDepthFirstSearch();
+
+  /**
+   * Performs recursive depth-first search from each root in order.
+   *
+   * @return A list of vertices visited during the depth-first search.
+   */
+  List<T> recursiveDepthFirstSearch();
+}
@@ -0,0 +1,119 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * A disjoint-set (union-find) structure over the ints 0 to n - 1.
+ *
+ * <p>Finding a set uses path compression and merging two sets uses union by rank, so any sequence
+ * of operations runs in near constant amortised time per operation.
+ */
+public class DisjointSet {
+  private int[] parent;
+  private byte[] rank;
+  private int size;
+  private int setCount;
+
+  /**
+   * Constructs a disjoint-set where every element starts in its own set.
+   *
+   * @param size The number of elements.
+   */
+  public DisjointSet(int size) {
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    this.size = size;
+    this.setCount = size;
+
+    for (int i = 0; i < size; i++) {
+      parent[i] = i;
+    }
+  }
+
+  /**
+   * Adds an element in a set of its own.
+   *
+   * @return The new element, which is the number of elements there were before.
+   */
+  public int add() {
+    if (size == parent.length) {
+      // Grow by half so that adding elements one at a time takes amortised constant time
+      int capacity = Math.max(size + (size >> 1), size + 1);
+      parent = Arrays.copyOf(parent, capacity);
+      rank = Arrays.copyOf(rank, capacity);
+    }
+
+    parent[size] = size;
+    setCount++;
+    return size++;
+  }
+
+  /**
+   * Finds the representative element of the set containing an element.
+   *
+   * @param element The element to look up.
+   * @return The representative of its set.
+   */
+  public int find(int element) {
+    int root = element;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+
+    // Point every element on the path straight at the root
+    while (parent[element] != root) {
+      int next = parent[element];
+      parent[element] = root;
+      element = next;
+    }
+
+    return root;
+  }
+
+  /**
+   * Merges the sets containing two elements.
+   *
+   * @param first An element of the first set.
+   * @param second An element of the second set.
+   * @return {@code true} if the sets were merged, {@code false} if they were already the same set.
+   */
+  public boolean union(int first, int second) {
+    int firstRoot = find(first);
+    int secondRoot = find(second);
+
+    if (firstRoot == secondRoot) {
+      return false;
+    }
+
+    // Hang the shallower tree under the deeper one so that trees stay shallow
+    if (rank[firstRoot] < rank[secondRoot]) {
+      parent[firstRoot] = secondRoot;
+    } else if (rank[firstRoot] > rank[secondRoot]) {
+      parent[secondRoot] = firstRoot;
+    } else {
+      parent[secondRoot] = firstRoot;
+      rank[firstRoot]++;
+    }
+
+    setCount--;
+    return true;
+  }
+
+  /**
+   * Retrieves the number of elements.
+   *
+   * @return The number of elements.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Retrieves the number of disjoint sets.
+   *
+   * @return The number of sets.
+   */
+  public int getSetCount() {
+    return setCount;
+  }
+}
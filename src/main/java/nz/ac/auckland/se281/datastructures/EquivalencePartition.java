@@ -0,0 +1,103 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * The equivalence classes of the vertices 0 to n - 1, computed once from a {@link DisjointSet}.
+ *
+ * <p>Classes are numbered in order of their smallest vertex. Each vertex maps to its class id in
+ * constant time, and the members of each class are kept in one array grouped by class and sorted
+ * within each class.
+ */
+public class EquivalencePartition {
+  private int[] classIds;
+  private int[] minimums;
+  private int[] memberOffsets;
+  private int[] members;
+
+  /**
+   * Constructs the partition of the elements of a disjoint-set.
+   *
+   * @param sets The disjoint-set whose sets are the equivalence classes.
+   */
+  public EquivalencePartition(DisjointSet sets) {
+    int size = sets.size();
+    int classCount = sets.getSetCount();
+    int[] classOfRoot = new int[size];
+    Arrays.fill(classOfRoot, -1);
+
+    classIds = new int[size];
+    minimums = new int[classCount];
+    memberOffsets = new int[classCount + 1];
+    members = new int[size];
+
+    // Walking the vertices in ascending order meets the minimum of each class first
+    int nextClass = 0;
+    for (int vertex = 0; vertex < size; vertex++) {
+      int root = sets.find(vertex);
+
+      if (classOfRoot[root] < 0) {
+        classOfRoot[root] = nextClass;
+        minimums[nextClass] = vertex;
+        nextClass++;
+      }
+
+      classIds[vertex] = classOfRoot[root];
+      memberOffsets[classIds[vertex] + 1]++;
+    }
+
+    for (int i = 0; i < classCount; i++) {
+      memberOffsets[i + 1] += memberOffsets[i];
+    }
+
+    // A second ascending pass keeps the members of each class sorted
+    int[] next = Arrays.copyOf(memberOffsets, classCount);
+    for (int vertex = 0; vertex < size; vertex++) {
+      members[next[classIds[vertex]]++] = vertex;
+    }
+  }
+
+  /**
+   * Retrieves the number of equivalence classes.
+   *
+   * @return The number of classes.
+   */
+  public int getClassCount() {
+    return minimums.length;
+  }
+
+  /**
+   * Retrieves the class of a vertex.
+   *
+   * @param vertex The vertex.
+   * @return The id of its class.
+   */
+  public int getClassId(int vertex) {
+    return classIds[vertex];
+  }
+
+  /**
+   * Retrieves the smallest vertex of a class.
+   *
+   * @param classId The id of the class.
+   * @return The smallest vertex in the class.
+   */
+  public int getMinimum(int classId) {
+    return minimums[classId];
+  }
+
+  /**
+   * Retrieves the members of a class in ascending order.
+   *
+   * @param classId The id of the class.
+   * @return A copy of the members of the class.
+   */
+  public int[] getMembers(int classId) {
+    return Arrays.copyOfRange(members, memberOffsets[classId], memberOffsets[classId + 1]);
+  }
+
+  long getMemoryBytes() {
+    long ints = (long) classIds.length + minimums.length + memberOffsets.length + members.length;
+    return Integer.BYTES * ints;
+  }
+}
@@ -1,8 +1,13 @@
 package nz.ac.auckland.se281.datastructures;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -14,21 +19,221 @@ import java.util.TreeSet;
  * like reflexivity, symmetry, transitivity, antisymmetry, and equivalence, and performing
  * breadth-first and depth-first searches.
  *
+ * <p>Vertices and edges can be added and removed after construction. Every change updates the
+ * successor index along with the number of self loops, the number of edges with and without a
+ * return edge, the set of vertices without predecessors and a disjoint-set forest of the connected
+ * vertices. Reflexivity, symmetry, antisymmetry and the roots are then read straight from these, so
+ * a check after a small change costs time in proportion to the change rather than to the graph.
+ * Transitivity is kept across a change whenever the edges next to it show that it still holds.
+ *
  * @param <T> The type of each vertex, that have a total ordering.
  */
-public class Graph<T extends Comparable<T>> {
+public class Graph<T extends Comparable<T>> implements DirectedGraph<T> {
   private Set<T> vertices;
   private Set<Edge<T>> edges;
+  private VertexOrder<? super T> order;
+  private Map<T, TreeSet<T>> successors;
+  private Map<T, Set<T>> predecessors;
+  private RelationProfile<T> profile;
+  private List<T> sortedVertices;
+  private Map<T, Integer> vertexIds;
+  private int[] rowOffsets;
+  private int[] rowTargets;
+
+  // The state that is kept up to date as the graph changes
+  private int selfLoopCount;
+  private int unreturnedCount;
+  private int returnedCount;
+  private TreeSet<T> unreachedVertices;
+  private Boolean transitive;
+  private DisjointSet classes;
+  private Map<T, Integer> classIds;
+  private List<T> classMinimums;
 
   /**
    * Constructs a graph with the given set of vertices and edges.
    *
+   * <p>An index of the successors and predecessors of every vertex is built once here, so that
+   * traversals do not need to scan the whole edge set for each vertex they expand. Labels are
+   * ordered numerically, with any that are not numbers after the rest, and other vertices are
+   * ordered naturally.
+   *
    * @param vertices The set of vertices in the graph.
    * @param edges The set of edges in the graph.
    */
   public Graph(Set<T> vertices, Set<Edge<T>> edges) {
-    this.vertices = vertices;
-    this.edges = edges;
+    this(vertices, edges, defaultOrder(vertices));
+  }
+
+  /**
+   * Constructs a graph with the given set of vertices and edges, and an order for its vertices.
+   *
+   * <p>The sets are copied, so editing the graph leaves them unchanged.
+   *
+   * @param vertices The set of vertices in the graph.
+   * @param edges The set of edges in the graph.
+   * @param order The order in which the vertices are listed and searched.
+   */
+  public Graph(Set<T> vertices, Set<Edge<T>> edges, VertexOrder<? super T> order) {
+    this.vertices = new LinkedHashSet<T>(vertices);
+    this.edges = new LinkedHashSet<Edge<T>>(edges);
+    this.order = order;
+    buildIndex();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends Comparable<T>> VertexOrder<? super T> defaultOrder(Set<T> vertices) {
+    // Labels added to an empty graph must still be ordered numerically
+    if (vertices.isEmpty()) {
+      return new DeferredVertexOrder<T>();
+    }
+
+    for (T vertex : vertices) {
+      if (!(vertex instanceof String)) {
+        return VertexOrder.natural();
+      }
+    }
+
+    // Every vertex is a String, so the numeric order of labels applies to them
+    return (VertexOrder<? super T>) (VertexOrder<?>) VertexOrder.numeric();
+  }
+
+  /**
+   * Adds a vertex without any edges.
+   *
+   * @param vertex The vertex to add.
+   * @return {@code true} if the vertex was added, or {@code false} if it was already in the graph.
+   */
+  public boolean addVertex(T vertex) {
+    if (vertices.contains(vertex)) {
+      return false;
+    }
+
+    vertices.add(vertex);
+    successors.put(vertex, createSortedSet());
+    predecessors.put(vertex, new HashSet<T>());
+    unreachedVertices.add(vertex);
+
+    if (classes != null) {
+      classIds.put(vertex, classes.add());
+      classMinimums.add(vertex);
+    }
+
+    // A vertex without edges cannot complete a path of two edges
+    forgetDerivedState(true);
+    return true;
+  }
+
+  /**
+   * Removes a vertex along with every edge to or from it.
+   *
+   * @param vertex The vertex to remove.
+   * @return {@code true} if the vertex was removed, or {@code false} if it was not in the graph.
+   */
+  public boolean removeVertex(T vertex) {
+    if (!vertices.contains(vertex)) {
+      return false;
+    }
+
+    for (T destination : new ArrayList<T>(successors.get(vertex))) {
+      unlink(vertex, destination);
+    }
+    for (T source : new ArrayList<T>(predecessors.get(vertex))) {
+      unlink(source, vertex);
+    }
+
+    vertices.remove(vertex);
+    successors.remove(vertex);
+    predecessors.remove(vertex);
+    unreachedVertices.remove(vertex);
+
+    // What is left of a transitive graph is still transitive, but a graph that was not may have
+    // lost every counterexample. A disjoint-set cannot be split, so it is rebuilt when needed.
+    if (Boolean.FALSE.equals(transitive)) {
+      transitive = null;
+    }
+    classes = null;
+    forgetDerivedState(true);
+    return true;
+  }
+
+  /**
+   * Adds an edge, adding its source and destination if they are not in the graph yet.
+   *
+   * @param source The source of the edge.
+   * @param destination The destination of the edge.
+   * @return {@code true} if the edge was added, or {@code false} if it was already in the graph.
+   */
+  public boolean addEdge(T source, T destination) {
+    boolean isNewVertex = addVertex(source) | addVertex(destination);
+
+    if (successors.get(source).contains(destination)) {
+      return false;
+    }
+
+    link(source, destination);
+
+    // Only the paths through the new edge need an edge to close them
+    if (Boolean.TRUE.equals(transitive)) {
+      transitive = isClosedAround(source, destination);
+    } else {
+      transitive = null;
+    }
+
+    if (classes != null) {
+      joinClasses(source, destination);
+    }
+
+    forgetDerivedState(isNewVertex);
+    return true;
+  }
+
+  /**
+   * Removes an edge, leaving its source and destination in the graph.
+   *
+   * @param source The source of the edge.
+   * @param destination The destination of the edge.
+   * @return {@code true} if the edge was removed, or {@code false} if it was not in the graph.
+   */
+  public boolean removeEdge(T source, T destination) {
+    if (!vertices.contains(source) || !successors.get(source).contains(destination)) {
+      return false;
+    }
+
+    unlink(source, destination);
+
+    // The graph stays transitive unless the edge closed a path of two other edges
+    if (Boolean.TRUE.equals(transitive)) {
+      transitive = !hasPathThroughAnother(source, destination);
+    } else {
+      transitive = null;
+    }
+
+    // A disjoint-set cannot be split, so it is rebuilt the next time it is needed
+    classes = null;
+    forgetDerivedState(false);
+    return true;
+  }
+
+  /**
+   * Retrieves the vertices of the graph.
+   *
+   * @return The vertices in order.
+   */
+  public List<T> getVertices() {
+    numberVertices();
+    return Collections.unmodifiableList(sortedVertices);
+  }
+
+  /**
+   * Retrieves the successors of a vertex.
+   *
+   * @param vertex The vertex.
+   * @return The successors of the vertex in order, or an empty set if the vertex does not exist.
+   */
+  public Set<T> getSuccessors(T vertex) {
+    TreeSet<T> row = successors.get(vertex);
+    return row == null ? Collections.<T>emptySet() : Collections.unmodifiableSet(row);
   }
 
   /**
@@ -40,26 +245,42 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return The set of roots in the graph.
    */
+  @Override
   public Set<T> getRoots() {
-    TreeSet<T> sortedRoots = createSortedSet(vertices);
-
-    // Remove vertices that don't have an in-degree of 0
-    for (Edge<T> edge : edges) {
-      sortedRoots.remove(edge.getDestination());
-    }
+    // The vertices that have an in-degree of 0 are kept as the graph changes
+    TreeSet<T> sortedRoots = createSortedSet(unreachedVertices);
 
     // If it the graph is an equivalence class, add the minimum value in each class
     if (this.isEquivalence()) {
-      for (T vertex : vertices) {
-        Set<T> currentEquivalenceClass = getEquivalenceClass(vertex);
-        T currentMinNumber = this.getMinimum(currentEquivalenceClass);
-        sortedRoots.add(currentMinNumber);
+      buildClasses();
+
+      for (int id = 0; id < classes.size(); id++) {
+        if (classes.find(id) == id) {
+          sortedRoots.add(classMinimums.get(id));
+        }
       }
     }
 
     return sortedRoots;
   }
 
+  /**
+   * Retrieves the relation properties of the graph.
+   *
+   * <p>Reflexivity, symmetry, antisymmetry and transitivity are all found in one scan over the
+   * successor index the first time this is called, along with a counterexample to each property
+   * that does not hold. The result is kept until the graph changes.
+   *
+   * @return The relation profile of the graph.
+   */
+  public RelationProfile<T> getProfile() {
+    if (profile == null) {
+      profile = analyse();
+    }
+
+    return profile;
+  }
+
   /**
    * Checks if the graph is reflexive.
    *
@@ -68,24 +289,9 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return {@code true} if the graph is reflexive, {@code false} otherwise.
    */
+  @Override
   public boolean isReflexive() {
-    for (T vertex : vertices) {
-      boolean hasSelfLoop = false;
-
-      for (Edge<T> edge : edges) {
-        // If the edge is a self loop, and the self loop is starts from the vertex
-        // then set the the vertex as having a self loop
-        if (edge.getSource().equals(edge.getDestination()) && edge.getSource().equals(vertex)) {
-          hasSelfLoop = true;
-        }
-      }
-      // If we find a vertex without a self loop we return false
-      if (!hasSelfLoop) {
-        return false;
-      }
-    }
-
-    return true;
+    return selfLoopCount == vertices.size();
   }
 
   /**
@@ -96,18 +302,9 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return {@code true} if the graph is symmetric, {@code false} otherwise.
    */
+  @Override
   public boolean isSymmetric() {
-    Edge<T> opposite;
-
-    for (Edge<T> edge : edges) {
-      // if A to B exists but not B to A, return false
-      opposite = new Edge<T>(edge.getDestination(), edge.getSource());
-      if (!edges.contains(opposite)) {
-        return false;
-      }
-    }
-
-    return true;
+    return unreturnedCount == 0;
   }
 
   /**
@@ -118,21 +315,13 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return {@code true} if the graph is transitive, {@code false} otherwise.
    */
+  @Override
   public boolean isTransitive() {
-    for (Edge<T> edge : edges) {
-      for (T vertex : vertices) {
-        // Let any edge be A to B
-        // If B to C exists where C is any other vertex and A to C doesn't exist, then the graph is
-        // not transitive
-        Edge<T> edgeBtoC = new Edge<T>(edge.getDestination(), vertex);
-        Edge<T> edgeAtoC = new Edge<T>(edge.getSource(), vertex);
-
-        if (edges.contains(edgeBtoC) && !edges.contains(edgeAtoC)) {
-          return false;
-        }
-      }
+    if (transitive == null) {
+      transitive = getProfile().isTransitive();
     }
-    return true;
+
+    return transitive;
   }
 
   /**
@@ -143,18 +332,9 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return {@code true} if the graph is antisymmetric, {@code false} otherwise.
    */
+  @Override
   public boolean isAntiSymmetric() {
-    for (Edge<T> edge : edges) {
-      Edge<T> edgeBtoA = new Edge<T>(edge.getDestination(), edge.getSource());
-
-      // If A to B exist and B to A exist and A does not equal B, then the graph is not
-      // antisymmetric
-      if (edges.contains(edgeBtoA) && (!edge.equals(edgeBtoA))) {
-        return false;
-      }
-    }
-
-    return true;
+    return returnedCount == 0;
   }
 
   /**
@@ -164,39 +344,29 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return {@code true} if the graph is an equivalence relation, {@code false} otherwise.
    */
+  @Override
   public boolean isEquivalence() {
-    if (this.isReflexive() && this.isSymmetric() && this.isTransitive()) {
-      return true;
-    }
-    return false;
+    return isReflexive() && isSymmetric() && isTransitive();
   }
 
   /**
    * Retrieves the equivalence class of a given vertex.
    *
    * <p>The equivalence class of a vertex is the set of all vertices that are in the same
-   * equivalence relation with the given vertex.
+   * equivalence relation with the given vertex. In an equivalence relation the class of a vertex is
+   * exactly its set of successors, so each lookup only costs the size of the class.
    *
    * @param vertex The vertex for which to retrieve the equivalence class.
-   * @return The set of vertices in the equivalence class of the given vertex.
+   * @return The set of vertices in the equivalence class of the given vertex, in numerical order.
    */
+  @Override
   public Set<T> getEquivalenceClass(T vertex) {
     // If it is not an equivalence relation, return an empty set
-    if (!isEquivalence()) {
-      return new TreeSet<T>();
+    if (!isEquivalence() || !vertices.contains(vertex)) {
+      return new LinkedHashSet<T>();
     }
 
-    // Initialise a sorted set with all the vertices
-    Set<T> equivalenceClass = createSortedSet(vertices);
-
-    for (T currentVertex : vertices) {
-      // If the vertex is not in the same equivalence class, remove the vertex
-      if (!this.isSameEquivalenceClass(currentVertex, vertex)) {
-        equivalenceClass.remove(currentVertex);
-      }
-    }
-
-    return equivalenceClass;
+    return new LinkedHashSet<T>(successors.get(vertex));
   }
 
   /**
@@ -208,38 +378,9 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return A list of vertices visited during the breadth-first search.
    */
+  @Override
   public List<T> iterativeBreadthFirstSearch() {
-    // Get the roots in numerical order
-    TreeSet<T> roots = createSortedSet(getRoots());
-    Queue<T> queue = new Queue<T>();
-    List<T> visited = new ArrayList<T>();
-
-    for (T currentRoot : roots) {
-      // Add the current root to the queue
-      queue.enqueue(currentRoot);
-      visited.add(currentRoot);
-
-      // Fully explore the child nodes of the root
-      while (!queue.isEmpty()) {
-        moveOneLayerBfs(queue, visited);
-      }
-    }
-
-    return visited;
-  }
-
-  private void moveOneLayerBfs(Queue<T> queue, List<T> visited) {
-    // Find all the child nodes of the vertex at the front of the queue
-    Node<T> currentNode = queue.dequeue();
-    Set<T> currentDestinations = this.findAllDestinations(currentNode.getData());
-
-    // Search the child nodes and add their children to the visited list and queue
-    for (T destination : currentDestinations) {
-      if (!visited.contains(destination)) {
-        visited.add(destination);
-        queue.enqueue(destination);
-      }
-    }
+    return toVertexList(createSearch().breadthFirst(findRootIds()));
   }
 
   /**
@@ -250,27 +391,9 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return A list of vertices visited during the breadth-first search.
    */
+  @Override
   public List<T> recursiveBreadthFirstSearch() {
-    // Get the roots in numerical order
-    TreeSet<T> roots = createSortedSet(getRoots());
-    Queue<T> queue = new Queue<T>();
-    List<T> visited = new ArrayList<T>();
-
-    for (T currentRoot : roots) {
-      // Add the current root to the queue
-      queue.enqueue(currentRoot);
-      visited.add(currentRoot);
-      recursiveBfsCall(queue, visited);
-    }
-
-    return visited;
-  }
-
-  private void recursiveBfsCall(Queue<T> queue, List<T> visited) {
-    if (!queue.isEmpty()) {
-      moveOneLayerBfs(queue, visited);
-      recursiveBfsCall(queue, visited);
-    }
+    return toVertexList(createSearch().recursiveBreadthFirst(findRootIds()));
   }
 
   /**
@@ -282,126 +405,286 @@ public class Graph<T extends Comparable<T>> {
    *
    * @return A list of vertices visited during the depth-first search.
    */
+  @Override
   public List<T> iterativeDepthFirstSearch() {
-    // Get the roots in numerical order
-    TreeSet<T> roots = createSortedSet(getRoots());
-    Stack<T> stack = new Stack<T>();
-    List<T> visited = new ArrayList<T>();
+    return toVertexList(createSearch().depthFirst(findRootIds()));
+  }
 
-    for (T currentRoot : roots) {
-      // Add current root to the stack
-      stack.push(currentRoot);
+  /**
+   * Performs recursive depth-first search on the graph.
+   *
+   * <p>This method uses recursion to perform depth-first search. It visits all the vertices of a
+   * graph in depth-first order.
+   *
+   * @return A list of vertices visited during the depth-first search.
+   */
+  @Override
+  public List<T> recursiveDepthFirstSearch() {
+    return toVertexList(createSearch().recursiveDepthFirst(findRootIds()));
+  }
+
+  private GraphSearch createSearch() {
+    if (rowOffsets == null) {
+      numberVertices();
+
+      // Lay the sorted successor sets out as rows of ids, which stay in ascending order
+      rowOffsets = new int[sortedVertices.size() + 1];
+      rowTargets = new int[edges.size()];
+      int written = 0;
 
-      while (!stack.isEmpty()) {
-        moveOneLayerDfs(stack, visited);
+      for (int vertex = 0; vertex < sortedVertices.size(); vertex++) {
+        rowOffsets[vertex] = written;
+        for (T destination : successors.get(sortedVertices.get(vertex))) {
+          rowTargets[written++] = vertexIds.get(destination);
+        }
       }
+      rowOffsets[sortedVertices.size()] = written;
     }
 
-    return visited;
+    // The search holds all the working storage, so nothing is allocated per vertex
+    return new GraphSearch(rowOffsets, rowTargets);
   }
 
-  private void moveOneLayerDfs(Stack<T> stack, List<T> visited) {
-    // This stack is for reversing the order of things
-    Stack<T> holdingStack = new Stack<T>();
+  private int[] findRootIds() {
+    numberVertices();
 
-    T currentNode = stack.pop();
-    if (!visited.contains(currentNode)) {
-      visited.add(currentNode);
+    Set<T> rootSet = getRoots();
+    int[] roots = new int[rootSet.size()];
+    int count = 0;
+    for (T root : rootSet) {
+      roots[count++] = vertexIds.get(root);
     }
 
-    Set<T> currentDestinations = this.findAllDestinations(currentNode);
+    // Ids follow the numerical order of the vertices
+    Arrays.sort(roots);
+    return roots;
+  }
+
+  private List<T> toVertexList(int[] ids) {
+    List<T> result = new ArrayList<T>(ids.length);
 
-    for (T destination : currentDestinations) {
-      if (!visited.contains(destination)) {
-        holdingStack.push(destination);
+    for (int id : ids) {
+      result.add(sortedVertices.get(id));
+    }
+
+    return result;
+  }
+
+  private void numberVertices() {
+    if (sortedVertices == null) {
+      // Number the vertices in sorted order so that the smallest id in a class is its minimum
+      sortedVertices = new ArrayList<T>(createSortedSet(vertices));
+      vertexIds = new HashMap<T, Integer>();
+      for (int i = 0; i < sortedVertices.size(); i++) {
+        vertexIds.put(sortedVertices.get(i), i);
       }
     }
-    // Unload the holding stack onto the stack, this reverses the order
-    holdingStack.unloadStackOnto(stack);
   }
 
-  /**
-   * Performs recursive depth-first search on the graph.
-   *
-   * <p>This method uses recursion to perform depth-first search. It visits all the vertices of a
-   * graph in depth-first order.
-   *
-   * @return A list of vertices visited during the depth-first search.
-   */
-  public List<T> recursiveDepthFirstSearch() {
-    // Get the roots in numerical order
-    TreeSet<T> roots = createSortedSet(getRoots());
-    Stack<T> stack = new Stack<T>();
-    List<T> visited = new ArrayList<T>();
+  private void buildClasses() {
+    if (classes == null) {
+      // Each vertex keeps its id in the disjoint-set while vertices are added after this
+      classes = new DisjointSet(vertices.size());
+      classIds = new HashMap<T, Integer>();
+      classMinimums = new ArrayList<T>(vertices);
 
-    for (T currentRoot : roots) {
-      stack.push(currentRoot);
-      recursiveDfsCall(stack, visited);
+      for (int id = 0; id < classMinimums.size(); id++) {
+        classIds.put(classMinimums.get(id), id);
+      }
+
+      // Every edge joins two vertices of the same class
+      for (Edge<T> edge : edges) {
+        joinClasses(edge.getSource(), edge.getDestination());
+      }
+    }
+  }
+
+  private void joinClasses(T first, T second) {
+    int firstRoot = classes.find(classIds.get(first));
+    int secondRoot = classes.find(classIds.get(second));
+
+    if (!classes.union(firstRoot, secondRoot)) {
+      return;
     }
 
-    return visited;
+    // Keep the smaller minimum at the root that survives
+    T firstMinimum = classMinimums.get(firstRoot);
+    T secondMinimum = classMinimums.get(secondRoot);
+    classMinimums.set(
+        classes.find(firstRoot),
+        order.compare(firstMinimum, secondMinimum) <= 0 ? firstMinimum : secondMinimum);
   }
 
-  private void recursiveDfsCall(Stack<T> stack, List<T> visited) {
-    if (!stack.isEmpty()) {
-      moveOneLayerDfs(stack, visited);
-      recursiveDfsCall(stack, visited);
+  private void link(T source, T destination) {
+    if (predecessors.get(destination).isEmpty()) {
+      unreachedVertices.remove(destination);
+    }
+
+    successors.get(source).add(destination);
+    predecessors.get(destination).add(source);
+    edges.add(new Edge<T>(source, destination));
+
+    if (source.equals(destination)) {
+      selfLoopCount++;
+    } else if (successors.get(destination).contains(source)) {
+      // The edge back was unreturned until now, and the pair is now returned both ways
+      unreturnedCount--;
+      returnedCount += 2;
+    } else {
+      unreturnedCount++;
     }
   }
 
-  private boolean isSameEquivalenceClass(T currentVertex, T vertex) {
-    // If the grpah isn't an equivalence relation, return false
-    if (!this.isEquivalence()) {
-      return false;
+  private void unlink(T source, T destination) {
+    successors.get(source).remove(destination);
+    predecessors.get(destination).remove(source);
+    edges.remove(new Edge<T>(source, destination));
+
+    if (predecessors.get(destination).isEmpty()) {
+      unreachedVertices.add(destination);
     }
 
-    // If the two vertices are in the same equivalence class then an edge will exist from any one of
-    // the vertices to the other
-    Edge<T> edgeA = new Edge<T>(currentVertex, vertex);
-    if (!edges.contains(edgeA)) {
-      return false;
+    if (source.equals(destination)) {
+      selfLoopCount--;
+    } else if (successors.get(destination).contains(source)) {
+      returnedCount -= 2;
+      unreturnedCount++;
+    } else {
+      unreturnedCount--;
+    }
+  }
+
+  private boolean isClosedAround(T source, T destination) {
+    // Every path X to A to B needs an edge X to B
+    for (T predecessor : predecessors.get(source)) {
+      if (!successors.get(predecessor).contains(destination)) {
+        return false;
+      }
+    }
+
+    // Every path A to B to C needs an edge A to C
+    for (T next : successors.get(destination)) {
+      if (!successors.get(source).contains(next)) {
+        return false;
+      }
     }
 
     return true;
   }
 
-  private T getMinimum(Set<T> numbers) {
-    T currentMinT = null;
-    for (T number : numbers) {
-      // Compare the two numbers, assume they are integers in String type
-      if (currentMinT == null
-          || Integer.compare(
-                  Integer.parseInt((String) number), Integer.parseInt((String) currentMinT))
-              < 0) {
-        currentMinT = number;
+  private boolean hasPathThroughAnother(T source, T destination) {
+    Set<T> fromSource = successors.get(source);
+    Set<T> intoDestination = predecessors.get(destination);
+
+    // Probe the smaller side for a vertex X with edges A to X and X to B
+    if (fromSource.size() <= intoDestination.size()) {
+      for (T middle : fromSource) {
+        if (intoDestination.contains(middle)) {
+          return true;
+        }
+      }
+    } else {
+      for (T middle : intoDestination) {
+        if (fromSource.contains(middle)) {
+          return true;
+        }
       }
     }
-    return currentMinT;
+
+    return false;
   }
 
-  private Set<T> findAllDestinations(T vertex) {
-    TreeSet<T> destinations = createSortedSet();
+  private void forgetDerivedState(boolean haveVerticesChanged) {
+    profile = null;
+    rowOffsets = null;
+    rowTargets = null;
 
-    for (Edge<T> edge : edges) {
-      // If the vertex is the source of the edge
-      // Then save the destination of the edge
-      if (vertex.equals(edge.getSource())) {
-        destinations.add(edge.getDestination());
+    if (haveVerticesChanged) {
+      sortedVertices = null;
+      vertexIds = null;
+    }
+  }
+
+  private RelationProfile<T> analyse() {
+    Edge<T> missingSelfLoop = null;
+    Edge<T> unreturnedEdge = null;
+    Edge<T> returnedEdge = null;
+    Edge<T> missingTransitiveEdge = null;
+    T transitiveIntermediate = null;
+
+    for (T source : vertices) {
+      Set<T> successorsOfA = successors.get(source);
+
+      // If we find a vertex without a self loop the graph is not reflexive
+      if (missingSelfLoop == null && !successorsOfA.contains(source)) {
+        missingSelfLoop = new Edge<T>(source, source);
+      }
+
+      for (T destination : successorsOfA) {
+        Set<T> successorsOfB = successors.get(destination);
+
+        // If A to B exists but not B to A, the graph is not symmetric. If both exist and A does not
+        // equal B, the graph is not antisymmetric
+        boolean isReturned = successorsOfB.contains(source);
+        if (!isReturned && unreturnedEdge == null) {
+          unreturnedEdge = new Edge<T>(source, destination);
+        } else if (isReturned && !source.equals(destination) && returnedEdge == null) {
+          returnedEdge = new Edge<T>(source, destination);
+        }
+
+        // If B to C exists and A to C doesn't exist, the graph is not transitive
+        if (missingTransitiveEdge == null) {
+          for (T next : successorsOfB) {
+            if (!successorsOfA.contains(next)) {
+              missingTransitiveEdge = new Edge<T>(source, next);
+              transitiveIntermediate = destination;
+              break;
+            }
+          }
+        }
       }
     }
 
-    return destinations;
+    return new RelationProfile<T>(
+        missingSelfLoop, unreturnedEdge, returnedEdge, missingTransitiveEdge, transitiveIntermediate);
+  }
+
+  private void buildIndex() {
+    successors = new HashMap<T, TreeSet<T>>();
+    predecessors = new HashMap<T, Set<T>>();
+
+    for (T vertex : vertices) {
+      successors.put(vertex, createSortedSet());
+      predecessors.put(vertex, new HashSet<T>());
+    }
+
+    // Record each edge once in both directions
+    for (Edge<T> edge : edges) {
+      successors.get(edge.getSource()).add(edge.getDestination());
+      predecessors.get(edge.getDestination()).add(edge.getSource());
+    }
+
+    unreachedVertices = createSortedSet();
+
+    for (T vertex : vertices) {
+      if (predecessors.get(vertex).isEmpty()) {
+        unreachedVertices.add(vertex);
+      }
+
+      for (T destination : successors.get(vertex)) {
+        if (vertex.equals(destination)) {
+          selfLoopCount++;
+        } else if (successors.get(destination).contains(vertex)) {
+          returnedCount++;
+        } else {
+          unreturnedCount++;
+        }
+      }
+    }
   }
 
   private TreeSet<T> createSortedSet() {
-    return new TreeSet<T>(
-        new Comparator<T>() {
-          // Overide the compare method ensure sorting in numerical order
-          @Override
-          public int compare(T o1, T o2) {
-            return Integer.compare(Integer.parseInt((String) o1), Integer.parseInt((String) o2));
-          }
-        });
+    return new TreeSet<T>(order);
   }
 
   // Create a sorted set with initial values
@@ -0,0 +1,243 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first and depth-first traversals over a graph whose vertices are int ids and whose
+ * edges are in compressed sparse row (CSR) form.
+ *
+ * <p>The queue, the stack, the visited bitset and the visit order are all sized for the whole graph
+ * when the search is created, so expanding a vertex allocates nothing. A search can be run any
+ * number of times.
+ *
+ * <p>Each traversal can be run to completion with a loop in {@link #breadthFirst} and {@link
+ * #depthFirst}, with recursion in {@link #recursiveBreadthFirst} and {@link #recursiveDepthFirst},
+ * or driven one vertex at a time by calling a start method for each root and then a step method
+ * until it returns {@code false}.
+ */
+public class GraphSearch {
+  private int[] offsets;
+  private int[] targets;
+  private long[] visited;
+  private IntQueue queue;
+  private IntStack stack;
+  private int[] order;
+  private int orderSize;
+
+  /**
+   * Constructs a search over the given rows, which must be sorted in ascending order.
+   *
+   * @param offsets The start of each vertex's row in {@code targets}, with a final end entry.
+   * @param targets The destinations of all edges, grouped by source.
+   */
+  GraphSearch(int[] offsets, int[] targets) {
+    int vertexCount = offsets.length - 1;
+
+    this.offsets = offsets;
+    this.targets = targets;
+    this.visited = new long[(vertexCount + 63) >>> 6];
+    this.queue = new IntQueue(vertexCount);
+    this.stack = new IntStack(vertexCount);
+    this.order = new int[vertexCount];
+    this.orderSize = 0;
+  }
+
+  /**
+   * Visits every vertex reachable from the roots in breadth-first order, taking the roots in the
+   * given order and the children of each vertex in ascending order.
+   *
+   * @param roots The ids of the roots.
+   * @return The ids of the vertices in the order they were visited.
+   */
+  public int[] breadthFirst(int[] roots) {
+    reset();
+
+    for (int root : roots) {
+      startBreadthFirst(root);
+
+      while (stepBreadthFirst()) {
+        // Keep expanding until this root's component is exhausted
+      }
+    }
+
+    return getOrder();
+  }
+
+  /**
+   * Visits every vertex reachable from the roots in depth-first order, taking the roots in the
+   * given order and the children of each vertex in ascending order.
+   *
+   * @param roots The ids of the roots.
+   * @return The ids of the vertices in the order they were visited.
+   */
+  public int[] depthFirst(int[] roots) {
+    reset();
+
+    for (int root : roots) {
+      startDepthFirst(root);
+
+      while (stepDepthFirst()) {
+        // Keep expanding until this root's component is exhausted
+      }
+    }
+
+    return getOrder();
+  }
+
+  /**
+   * Visits the same vertices in the same order as {@link #breadthFirst}, but expands them with
+   * recursive calls.
+   *
+   * @param roots The ids of the roots.
+   * @return The ids of the vertices in the order they were visited.
+   */
+  public int[] recursiveBreadthFirst(int[] roots) {
+    reset();
+
+    // Each vertex is dequeued at most once
+    for (int root : roots) {
+      startBreadthFirst(root);
+      recursiveBfsCall(order.length);
+    }
+
+    return getOrder();
+  }
+
+  /**
+   * Visits the same vertices in the same order as {@link #depthFirst}, but expands them with
+   * recursive calls.
+   *
+   * @param roots The ids of the roots.
+   * @return The ids of the vertices in the order they were visited.
+   */
+  public int[] recursiveDepthFirst(int[] roots) {
+    reset();
+
+    // Only the root and the destination of each edge are ever pushed
+    for (int root : roots) {
+      startDepthFirst(root);
+      recursiveDfsCall(targets.length + 1L);
+    }
+
+    return getOrder();
+  }
+
+  /** Forgets every visited vertex so that a new traversal can start. */
+  public void reset() {
+    Arrays.fill(visited, 0);
+    queue.clear();
+    stack.clear();
+    orderSize = 0;
+  }
+
+  /**
+   * Visits a root and queues it to be expanded breadth-first.
+   *
+   * @param root The id of the root.
+   */
+  public void startBreadthFirst(int root) {
+    // A root is never reachable from an earlier one, but guard the order array anyway
+    if (isVisited(root)) {
+      return;
+    }
+
+    visit(root);
+    queue.enqueue(root);
+  }
+
+  /**
+   * Expands the vertex at the front of the queue, visiting and queueing its unvisited children.
+   *
+   * @return {@code true} if a vertex was expanded, or {@code false} if the queue was empty.
+   */
+  public boolean stepBreadthFirst() {
+    if (queue.isEmpty()) {
+      return false;
+    }
+
+    int vertex = queue.dequeue();
+
+    // The row is sorted, so children are queued in numerical order
+    for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+      if (!isVisited(targets[i])) {
+        visit(targets[i]);
+        queue.enqueue(targets[i]);
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Pushes a root to be expanded depth-first.
+   *
+   * @param root The id of the root.
+   */
+  public void startDepthFirst(int root) {
+    stack.push(root);
+  }
+
+  /**
+   * Pops the vertex on top of the stack and, if it has not been visited yet, visits it and pushes
+   * its unvisited children.
+   *
+   * @return {@code true} if a vertex was popped, or {@code false} if the stack was empty.
+   */
+  public boolean stepDepthFirst() {
+    if (stack.isEmpty()) {
+      return false;
+    }
+
+    int vertex = stack.pop();
+    if (isVisited(vertex)) {
+      return true;
+    }
+    visit(vertex);
+
+    // Push the row backwards so that the smallest child is on top of the stack
+    for (int i = offsets[vertex + 1] - 1; i >= offsets[vertex]; i--) {
+      if (!isVisited(targets[i])) {
+        stack.push(targets[i]);
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Retrieves the vertices visited since the last reset.
+   *
+   * @return A copy of the ids of the vertices in the order they were visited.
+   */
+  public int[] getOrder() {
+    return Arrays.copyOf(order, orderSize);
+  }
+
+  private boolean recursiveBfsCall(long steps) {
+    // Recursing once per vertex would overflow the thread stack on a long chain, so the steps are
+    // split in half at each level and the depth only grows with their logarithm
+    if (steps <= 1) {
+      return stepBreadthFirst();
+    }
+
+    return recursiveBfsCall(steps / 2) && recursiveBfsCall(steps - steps / 2);
+  }
+
+  private boolean recursiveDfsCall(long steps) {
+    // Split the steps in half at each level, as for breadth-first search
+    if (steps <= 1) {
+      return stepDepthFirst();
+    }
+
+    return recursiveDfsCall(steps / 2) && recursiveDfsCall(steps - steps / 2);
+  }
+
+  private boolean isVisited(int vertex) {
+    return (visited[vertex >>> 6] & (1L << vertex)) != 0;
+  }
+
+  private void visit(int vertex) {
+    visited[vertex >>> 6] |= 1L << vertex;
+    order[orderSize++] = vertex;
+  }
+}
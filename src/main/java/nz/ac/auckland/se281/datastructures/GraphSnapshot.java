@@ -0,0 +1,366 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Saves a {@link CompactGraph} in a binary file so that it can be reopened without parsing its
+ * source again.
+ *
+ * <p>A snapshot is stored beside its source with a {@code .snapshot} suffix, or in the folder named
+ * by the {@code graphcalculator.snapshots} system property if it is set. All values are big endian,
+ * and the file is laid out as:
+ *
+ * <ol>
+ *   <li>a header of the magic number, the format version, the modification time, size and CRC-32C
+ *       of the source file, the vertex and edge counts and a set of flags;
+ *   <li>if {@link #HAS_PROFILE} is set, the ids of the counterexamples in the relation profile;
+ *   <li>the forward and reverse CSR offsets and targets;
+ *   <li>if {@link #HAS_KEYS} is set, the numeric key of each vertex;
+ *   <li>the vertex table, as the offset of each label followed by the UTF-8 bytes of all labels.
+ * </ol>
+ *
+ * <p>A snapshot is only used while the modification time, size and checksum of its source still
+ * match. Otherwise, or if it is damaged or from another version, {@link #read} returns {@code null}
+ * so that the source is parsed as usual.
+ */
+public class GraphSnapshot {
+  /** The first four bytes of every snapshot, "GCSN". */
+  public static final int MAGIC = 0x4743534E;
+
+  /** The version of the format, which must be increased whenever the layout changes. */
+  public static final int VERSION = 1;
+
+  /** The suffix added to the name of the source file. */
+  public static final String SUFFIX = ".snapshot";
+
+  /** The flag set when the vertex labels are all numbers and their keys are stored. */
+  public static final int HAS_KEYS = 1;
+
+  /** The flag set when the relation profile of the graph is stored. */
+  public static final int HAS_PROFILE = 2;
+
+  /**
+   * The folder that snapshots are kept in, from the {@code graphcalculator.snapshots} system
+   * property, or {@code null} to keep each one beside its source.
+   */
+  public static final Path DIRECTORY = directoryOf(System.getProperty("graphcalculator.snapshots"));
+
+  private static final int HEADER_BYTES = 5 * Integer.BYTES + 3 * Long.BYTES;
+
+  // Reflexivity, symmetry and antisymmetry each store an edge, and transitivity stores a path
+  private static final int PROFILE_INTS = 2 + 2 + 2 + 3;
+
+  private static final int NONE = -1;
+
+  private GraphSnapshot() {}
+
+  /**
+   * Finds where the snapshot of a source file is kept.
+   *
+   * @param source The source file.
+   * @return The path of its snapshot.
+   */
+  public static Path pathFor(Path source) {
+    // Sources with the same name in different folders share a snapshot in the folder, which the
+    // checksum in the header tells apart
+    String name = source.getFileName() + SUFFIX;
+    return DIRECTORY != null ? DIRECTORY.resolve(name) : source.resolveSibling(name);
+  }
+
+  private static Path directoryOf(String property) {
+    return property == null || property.isEmpty() ? null : Path.of(property);
+  }
+
+  /**
+   * Reads the snapshot of a source file, if there is an up-to-date one.
+   *
+   * @param source The source file whose snapshot should be read.
+   * @return The graph in the snapshot, or {@code null} if there is no usable snapshot.
+   * @throws IOException If the source file cannot be read.
+   */
+  public static CompactGraph read(Path source) throws IOException {
+    Path snapshot = pathFor(source);
+    long modified = Files.getLastModifiedTime(source).toMillis();
+    long size = Files.size(source);
+
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+        return null;
+      }
+
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      // Check the cheap fields before hashing the whole source
+      if (buffer.getInt() != MAGIC
+          || buffer.getInt() != VERSION
+          || buffer.getLong() != modified
+          || buffer.getLong() != size
+          || buffer.getLong() != checksum(source)) {
+        return null;
+      }
+
+      return readGraph(buffer);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      // The snapshot is truncated or its counts are inconsistent
+      return null;
+    }
+  }
+
+  /**
+   * Writes the snapshot of a graph for its source file, replacing any older snapshot.
+   *
+   * <p>The snapshot is written to a temporary file first and then moved into place, so a reader
+   * never sees a half-written snapshot.
+   *
+   * @param graph The graph that was loaded from the source.
+   * @param source The source file of the graph.
+   * @throws IOException If the snapshot cannot be written.
+   */
+  public static void write(CompactGraph graph, Path source) throws IOException {
+    long modified = Files.getLastModifiedTime(source).toMillis();
+    long size = Files.size(source);
+    long checksum = checksum(source);
+
+    String[] labels = graph.getLabels();
+    long[] keys = graph.getKeys();
+    byte[][] encoded = new byte[labels.length][];
+    long labelBytes = 0;
+
+    for (int vertex = 0; vertex < labels.length; vertex++) {
+      encoded[vertex] = labels[vertex].getBytes(StandardCharsets.UTF_8);
+      labelBytes += encoded[vertex].length;
+    }
+
+    int flags = (keys != null ? HAS_KEYS : 0) | (graph.isProfiled() ? HAS_PROFILE : 0);
+    long total = computeSize(labels.length, graph.getEdgeCount(), flags) + labelBytes;
+    if (total > Integer.MAX_VALUE) {
+      throw new IOException("The graph is too large to snapshot");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) total);
+    buffer.putInt(MAGIC).putInt(VERSION).putLong(modified).putLong(size).putLong(checksum);
+    buffer.putInt(labels.length).putInt(graph.getEdgeCount()).putInt(flags);
+
+    if (graph.isProfiled()) {
+      writeProfile(buffer, graph);
+    }
+
+    writeInts(buffer, graph.getOffsets());
+    writeInts(buffer, graph.getTargets());
+    writeInts(buffer, graph.getReverseOffsets());
+    writeInts(buffer, graph.getSources());
+
+    if (keys != null) {
+      buffer.asLongBuffer().put(keys);
+      buffer.position(buffer.position() + Long.BYTES * labels.length);
+    }
+
+    int offset = 0;
+    for (byte[] label : encoded) {
+      buffer.putInt(offset);
+      offset += label.length;
+    }
+    buffer.putInt(offset);
+    for (byte[] label : encoded) {
+      buffer.put(label);
+    }
+
+    Path snapshot = pathFor(source);
+    Files.createDirectories(snapshot.toAbsolutePath().getParent());
+    Path temporary = Files.createTempFile(snapshot.toAbsolutePath().getParent(), null, SUFFIX);
+
+    try {
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+
+      Files.move(
+          temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private static CompactGraph readGraph(ByteBuffer buffer) {
+    int vertexCount = buffer.getInt();
+    int edgeCount = buffer.getInt();
+    int flags = buffer.getInt();
+
+    if (vertexCount < 0
+        || edgeCount < 0
+        || buffer.capacity() < computeSize(vertexCount, edgeCount, flags)) {
+      return null;
+    }
+
+    int[] profileIds = new int[PROFILE_INTS];
+    if ((flags & HAS_PROFILE) != 0) {
+      buffer.asIntBuffer().get(profileIds);
+      buffer.position(buffer.position() + Integer.BYTES * PROFILE_INTS);
+    }
+
+    int[] offsets = readInts(buffer, vertexCount + 1);
+    int[] targets = readInts(buffer, edgeCount);
+    int[] reverseOffsets = readInts(buffer, vertexCount + 1);
+    int[] sources = readInts(buffer, edgeCount);
+
+    if (!isValidRows(offsets, targets, vertexCount)
+        || !isValidRows(reverseOffsets, sources, vertexCount)) {
+      return null;
+    }
+
+    long[] keys = null;
+    if ((flags & HAS_KEYS) != 0) {
+      keys = new long[vertexCount];
+      buffer.asLongBuffer().get(keys);
+      buffer.position(buffer.position() + Long.BYTES * vertexCount);
+    }
+
+    int[] labelOffsets = readInts(buffer, vertexCount + 1);
+    int labelStart = buffer.position();
+
+    if (!isValidOffsets(labelOffsets, buffer.capacity() - labelStart)) {
+      return null;
+    }
+
+    String[] labels = new String[vertexCount];
+
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      int start = labelStart + labelOffsets[vertex];
+      int length = labelOffsets[vertex + 1] - labelOffsets[vertex];
+      byte[] bytes = new byte[length];
+      buffer.get(start, bytes);
+      labels[vertex] = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    RelationProfile<String> profile =
+        (flags & HAS_PROFILE) != 0 ? readProfile(profileIds, labels) : null;
+
+    return new CompactGraph(labels, keys, offsets, targets, reverseOffsets, sources, profile);
+  }
+
+  private static boolean isValidRows(int[] offsets, int[] ids, int vertexCount) {
+    if (!isValidOffsets(offsets, ids.length) || offsets[vertexCount] != ids.length) {
+      return false;
+    }
+
+    for (int id : ids) {
+      if (id < 0 || id >= vertexCount) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static boolean isValidOffsets(int[] offsets, int limit) {
+    // The header's checksum only covers the source, so a damaged body must be caught here
+    if (offsets[0] != 0 || offsets[offsets.length - 1] > limit) {
+      return false;
+    }
+
+    for (int i = 0; i + 1 < offsets.length; i++) {
+      if (offsets[i] > offsets[i + 1]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static int[] readInts(ByteBuffer buffer, int count) {
+    int[] values = new int[count];
+    buffer.asIntBuffer().get(values);
+    buffer.position(buffer.position() + Integer.BYTES * count);
+    return values;
+  }
+
+  private static void writeInts(ByteBuffer buffer, int[] values) {
+    buffer.asIntBuffer().put(values);
+    buffer.position(buffer.position() + Integer.BYTES * values.length);
+  }
+
+  private static void writeProfile(ByteBuffer buffer, CompactGraph graph) {
+    RelationProfile<String> profile = graph.getProfile();
+
+    writeEdge(buffer, graph, profile.getReflexivityCounterexample());
+    writeEdge(buffer, graph, profile.getSymmetryCounterexample());
+    writeEdge(buffer, graph, profile.getAntiSymmetryCounterexample());
+    writeEdge(buffer, graph, profile.getTransitivityCounterexample());
+
+    String intermediate = profile.getTransitivityIntermediate();
+    buffer.putInt(intermediate == null ? NONE : graph.indexOf(intermediate));
+  }
+
+  private static void writeEdge(ByteBuffer buffer, CompactGraph graph, Edge<String> edge) {
+    if (edge == null) {
+      buffer.putInt(NONE).putInt(NONE);
+    } else {
+      buffer.putInt(graph.indexOf(edge.getSource())).putInt(graph.indexOf(edge.getDestination()));
+    }
+  }
+
+  private static RelationProfile<String> readProfile(int[] ids, String[] labels) {
+    return new RelationProfile<String>(
+        readEdge(ids, 0, labels),
+        readEdge(ids, 2, labels),
+        readEdge(ids, 4, labels),
+        readEdge(ids, 6, labels),
+        ids[8] == NONE ? null : labels[ids[8]]);
+  }
+
+  private static Edge<String> readEdge(int[] ids, int index, String[] labels) {
+    if (ids[index] == NONE) {
+      return null;
+    }
+
+    return new Edge<String>(labels[ids[index]], labels[ids[index + 1]]);
+  }
+
+  private static long computeSize(int vertexCount, int edgeCount, int flags) {
+    long size = HEADER_BYTES;
+
+    if ((flags & HAS_PROFILE) != 0) {
+      size += Integer.BYTES * PROFILE_INTS;
+    }
+
+    // Forward and reverse rows, then the label offsets
+    size += Integer.BYTES * (2L * (vertexCount + 1) + 2L * edgeCount + vertexCount + 1);
+
+    if ((flags & HAS_KEYS) != 0) {
+      size += (long) Long.BYTES * vertexCount;
+    }
+
+    return size;
+  }
+
+  private static long checksum(Path source) throws IOException {
+    CRC32C crc = new CRC32C();
+
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      long size = channel.size();
+
+      for (long start = 0; start < size; start += Integer.MAX_VALUE) {
+        long length = Math.min(Integer.MAX_VALUE, size - start);
+        crc.update(channel.map(FileChannel.MapMode.READ_ONLY, start, length));
+      }
+    }
+
+    return crc.getValue();
+  }
+}
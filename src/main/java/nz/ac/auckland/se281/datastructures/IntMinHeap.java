@@ -0,0 +1,127 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of ints stored in an array, which always removes its smallest element first.
+ *
+ * <p>Unlike a {@link java.util.PriorityQueue} of {@link Integer}, no value is boxed and comparisons
+ * are plain int comparisons. The array only grows when it is full.
+ */
+public class IntMinHeap {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] elements;
+  private int size;
+
+  /** Constructs an empty heap. */
+  public IntMinHeap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs an empty heap that can hold the given number of elements before it grows.
+   *
+   * @param capacity The initial capacity of the heap.
+   */
+  public IntMinHeap(int capacity) {
+    this.elements = new int[Math.max(1, capacity)];
+    this.size = 0;
+  }
+
+  /**
+   * Adds an element to the heap.
+   *
+   * @param value The element to add.
+   */
+  public void push(int value) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, 2 * elements.length);
+    }
+
+    // Sift the new element up until its parent is no larger
+    int position = size++;
+    while (position > 0) {
+      int parent = (position - 1) >>> 1;
+      if (elements[parent] <= value) {
+        break;
+      }
+      elements[position] = elements[parent];
+      position = parent;
+    }
+    elements[position] = value;
+  }
+
+  /**
+   * Removes and returns the smallest element of the heap.
+   *
+   * @return The smallest element.
+   * @throws NoSuchElementException If the heap is empty.
+   */
+  public int pop() {
+    if (size == 0) {
+      throw new NoSuchElementException("Heap is empty");
+    }
+
+    int smallest = elements[0];
+    int value = elements[--size];
+
+    // Sift the last element down from the root until both children are no smaller
+    int position = 0;
+    while (true) {
+      int child = 2 * position + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && elements[child + 1] < elements[child]) {
+        child++;
+      }
+      if (value <= elements[child]) {
+        break;
+      }
+      elements[position] = elements[child];
+      position = child;
+    }
+    elements[position] = value;
+
+    return smallest;
+  }
+
+  /**
+   * Retrieves the smallest element of the heap without removing it.
+   *
+   * @return The smallest element.
+   * @throws NoSuchElementException If the heap is empty.
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException("Heap is empty");
+    }
+
+    return elements[0];
+  }
+
+  /**
+   * Retrieves the number of elements in the heap.
+   *
+   * @return The size of the heap.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if the heap is empty.
+   *
+   * @return {@code true} if the heap is empty, {@code false} otherwise.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes every element, keeping the array for reuse. */
+  public void clear() {
+    size = 0;
+  }
+}
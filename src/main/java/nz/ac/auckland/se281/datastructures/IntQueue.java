@@ -0,0 +1,141 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A first-in, first-out queue of ints stored in a ring buffer.
+ *
+ * <p>Unlike {@link Queue}, no node is allocated per element and no value is boxed. The buffer only
+ * grows when it is full, so a queue that is reused for a whole traversal stops allocating once it
+ * has reached its largest size.
+ */
+public class IntQueue {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] elements;
+  private int head;
+  private int size;
+
+  /** Constructs an empty queue. */
+  public IntQueue() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs an empty queue that can hold the given number of elements before it grows.
+   *
+   * @param capacity The initial capacity of the queue.
+   */
+  public IntQueue(int capacity) {
+    this.elements = new int[Math.max(1, capacity)];
+    this.head = 0;
+    this.size = 0;
+  }
+
+  /**
+   * Adds an element to the rear of the queue.
+   *
+   * @param value The element to enqueue.
+   */
+  public void enqueue(int value) {
+    if (size == elements.length) {
+      grow();
+    }
+
+    // The rear wraps around to the start of the buffer
+    int rear = head + size;
+    if (rear >= elements.length) {
+      rear -= elements.length;
+    }
+
+    elements[rear] = value;
+    size++;
+  }
+
+  /**
+   * Removes and returns the element at the front of the queue.
+   *
+   * @return The element at the front of the queue.
+   * @throws NoSuchElementException If the queue is empty.
+   */
+  public int dequeue() {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty");
+    }
+
+    int value = elements[head];
+    head++;
+    if (head == elements.length) {
+      head = 0;
+    }
+    size--;
+
+    return value;
+  }
+
+  /**
+   * Retrieves the element at the front of the queue without removing it.
+   *
+   * @return The element at the front of the queue.
+   * @throws NoSuchElementException If the queue is empty.
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException("Queue is empty");
+    }
+
+    return elements[head];
+  }
+
+  /**
+   * Checks if the queue is empty.
+   *
+   * @return {@code true} if the queue is empty, {@code false} otherwise.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Retrieves the number of elements in the queue.
+   *
+   * @return The size of the queue.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /** Removes every element, keeping the buffer for reuse. */
+  public void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Returns a string representation of the queue, from front to rear.
+   *
+   * @return A string representation of the queue.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(elements[(head + i) % elements.length]);
+    }
+
+    return sb.append("]").toString();
+  }
+
+  private void grow() {
+    // Unwrap the elements so the front is at the start of the larger buffer
+    int[] larger = Arrays.copyOfRange(elements, head, head + 2 * elements.length);
+    System.arraycopy(elements, 0, larger, elements.length - head, head);
+    elements = larger;
+    head = 0;
+  }
+}
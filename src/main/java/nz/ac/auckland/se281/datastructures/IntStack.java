@@ -0,0 +1,107 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A last-in, first-out stack of ints stored in an array.
+ *
+ * <p>Unlike {@link Stack}, no node is allocated per element and no value is boxed. The array only
+ * grows when it is full, so a stack that is reused for a whole traversal stops allocating once it
+ * has reached its largest size.
+ */
+public class IntStack {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] elements;
+  private int size;
+
+  /** Constructs an empty stack. */
+  public IntStack() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs an empty stack that can hold the given number of elements before it grows.
+   *
+   * @param capacity The initial capacity of the stack.
+   */
+  public IntStack(int capacity) {
+    this.elements = new int[Math.max(1, capacity)];
+    this.size = 0;
+  }
+
+  /**
+   * Pushes an element onto the top of the stack.
+   *
+   * @param value The element to push.
+   */
+  public void push(int value) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, 2 * elements.length);
+    }
+
+    elements[size++] = value;
+  }
+
+  /**
+   * Removes and returns the element at the top of the stack.
+   *
+   * @return The element at the top of the stack.
+   * @throws NoSuchElementException If the stack is empty.
+   */
+  public int pop() {
+    if (size == 0) {
+      throw new NoSuchElementException("Stack is empty");
+    }
+
+    return elements[--size];
+  }
+
+  /**
+   * Retrieves the element at the top of the stack without removing it.
+   *
+   * @return The element at the top of the stack.
+   * @throws NoSuchElementException If the stack is empty.
+   */
+  public int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException("Stack is empty");
+    }
+
+    return elements[size - 1];
+  }
+
+  /**
+   * Retrieves the number of elements in the stack.
+   *
+   * @return The size of the stack.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if the stack is empty.
+   *
+   * @return {@code true} if the stack is empty, {@code false} otherwise.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes every element, keeping the array for reuse. */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns a string representation of the stack, from bottom to top.
+   *
+   * @return A string representation of the stack.
+   */
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(elements, size));
+  }
+}
@@ -0,0 +1,149 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Collects edges between integer vertex labels and builds a {@link CompactGraph} from them.
+ *
+ * <p>Unlike {@link CompactGraphBuilder}, no label is turned into a {@code String} or looked up in a
+ * hash map while edges are added. The raw values are buffered in primitive arrays, and when the
+ * graph is built the distinct values are sorted once, so that a binary search gives each value its
+ * id in numerical order. Only one {@code String} label is created per distinct vertex.
+ */
+public class NumericGraphBuilder {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] edgeSources;
+  private long[] edgeDestinations;
+  private int edgeCount;
+  private long[] isolatedVertices;
+  private int isolatedCount;
+
+  /** Constructs an empty builder. */
+  public NumericGraphBuilder() {
+    this.edgeSources = new long[INITIAL_CAPACITY];
+    this.edgeDestinations = new long[INITIAL_CAPACITY];
+    this.edgeCount = 0;
+    this.isolatedVertices = new long[INITIAL_CAPACITY];
+    this.isolatedCount = 0;
+  }
+
+  /**
+   * Adds a vertex to the graph, which is needed only for vertices that may have no edges.
+   *
+   * @param vertex The label of the vertex.
+   */
+  public void addVertex(long vertex) {
+    if (isolatedCount == isolatedVertices.length) {
+      isolatedVertices = Arrays.copyOf(isolatedVertices, isolatedCount * 2);
+    }
+
+    isolatedVertices[isolatedCount++] = vertex;
+  }
+
+  /**
+   * Adds an edge to the graph.
+   *
+   * @param source The label of the source vertex.
+   * @param destination The label of the destination vertex.
+   */
+  public void addEdge(long source, long destination) {
+    if (edgeCount == edgeSources.length) {
+      edgeSources = Arrays.copyOf(edgeSources, edgeCount * 2);
+      edgeDestinations = Arrays.copyOf(edgeDestinations, edgeCount * 2);
+    }
+
+    edgeSources[edgeCount] = source;
+    edgeDestinations[edgeCount] = destination;
+    edgeCount++;
+  }
+
+  /**
+   * Adds every vertex and edge from another builder, such as one that was filled by another thread.
+   *
+   * @param other The builder to copy from.
+   */
+  public void addAll(NumericGraphBuilder other) {
+    int edgeCapacity = Math.max(edgeSources.length, edgeCount + other.edgeCount);
+    edgeSources = Arrays.copyOf(edgeSources, edgeCapacity);
+    edgeDestinations = Arrays.copyOf(edgeDestinations, edgeCapacity);
+    System.arraycopy(other.edgeSources, 0, edgeSources, edgeCount, other.edgeCount);
+    System.arraycopy(other.edgeDestinations, 0, edgeDestinations, edgeCount, other.edgeCount);
+    edgeCount += other.edgeCount;
+
+    int isolatedCapacity = Math.max(isolatedVertices.length, isolatedCount + other.isolatedCount);
+    isolatedVertices = Arrays.copyOf(isolatedVertices, isolatedCapacity);
+    System.arraycopy(
+        other.isolatedVertices, 0, isolatedVertices, isolatedCount, other.isolatedCount);
+    isolatedCount += other.isolatedCount;
+  }
+
+  /**
+   * Retrieves the number of edges added so far, including duplicates.
+   *
+   * @return The number of edges.
+   */
+  public int getEdgeCount() {
+    return edgeCount;
+  }
+
+  /**
+   * Builds the compact graph from the vertices and edges added so far.
+   *
+   * @return The compact graph.
+   */
+  public CompactGraph build() {
+    return build(false);
+  }
+
+  /**
+   * Builds the compact graph from the vertices and edges added so far, optionally sorting the
+   * labels and renumbering the edges in parallel.
+   *
+   * <p>The parallel steps run in the fork/join pool of the calling thread, or in the common pool if
+   * the caller is not a pool worker.
+   *
+   * @param parallel Whether to use several threads.
+   * @return The compact graph.
+   */
+  public CompactGraph build(boolean parallel) {
+    // Gather every label that was mentioned, then sort and deduplicate them to get the id order
+    long[] keys = new long[2 * edgeCount + isolatedCount];
+    System.arraycopy(edgeSources, 0, keys, 0, edgeCount);
+    System.arraycopy(edgeDestinations, 0, keys, edgeCount, edgeCount);
+    System.arraycopy(isolatedVertices, 0, keys, 2 * edgeCount, isolatedCount);
+
+    if (parallel) {
+      Arrays.parallelSort(keys);
+    } else {
+      Arrays.sort(keys);
+    }
+
+    int vertexCount = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (i == 0 || keys[i] != keys[i - 1]) {
+        keys[vertexCount++] = keys[i];
+      }
+    }
+    final long[] sortedKeys = Arrays.copyOf(keys, vertexCount);
+
+    String[] labels = new String[vertexCount];
+    int[] sources = new int[edgeCount];
+    int[] destinations = new int[edgeCount];
+    IntUnaryOperator sourceId = i -> Arrays.binarySearch(sortedKeys, edgeSources[i]);
+    IntUnaryOperator destinationId = i -> Arrays.binarySearch(sortedKeys, edgeDestinations[i]);
+
+    if (parallel) {
+      Arrays.parallelSetAll(labels, i -> Long.toString(sortedKeys[i]));
+      Arrays.parallelSetAll(sources, sourceId);
+      Arrays.parallelSetAll(destinations, destinationId);
+    } else {
+      Arrays.setAll(labels, i -> Long.toString(sortedKeys[i]));
+      Arrays.setAll(sources, sourceId);
+      Arrays.setAll(destinations, destinationId);
+    }
+
+    return CompactGraph.fromEdges(labels, sortedKeys, sources, destinations, edgeCount);
+  }
+}
@@ -0,0 +1,62 @@
+package nz.ac.auckland.se281.datastructures;
+
+/**
+ * Orders vertex labels by their numerical value, as {@link CompactGraph} does when every label is
+ * an integer.
+ *
+ * <p>A graph that is edited may gain labels that are not integers, so those are placed after all
+ * the integers and ordered as strings. Integers with the same value but different text, such as
+ * {@code 7} and {@code +7}, are also ordered as strings so that neither is lost from a sorted set.
+ *
+ * <p>Each comparison reads the value of both labels in one pass over their digits. The labels of
+ * the test cases are a few digits long, so this costs less than looking a key that was worked out
+ * in advance up in a map.
+ */
+public class NumericLabelOrder implements VertexOrder<String> {
+  // Longer numbers could overflow a long
+  private static final int MAX_DIGITS = 18;
+
+  // No number of at most 18 digits has this value, so it marks a label that is not a number
+  private static final long NOT_NUMBER = Long.MIN_VALUE;
+
+  @Override
+  public int compare(String first, String second) {
+    long firstKey = keyOf(first);
+    long secondKey = keyOf(second);
+    boolean isFirstNumber = firstKey != NOT_NUMBER;
+    boolean isSecondNumber = secondKey != NOT_NUMBER;
+
+    if (isFirstNumber && isSecondNumber) {
+      int byValue = Long.compare(firstKey, secondKey);
+
+      if (byValue != 0) {
+        return byValue;
+      }
+    } else if (isFirstNumber != isSecondNumber) {
+      return isFirstNumber ? -1 : 1;
+    }
+
+    return first.compareTo(second);
+  }
+
+  private static long keyOf(String label) {
+    int length = label.length();
+    int start = length > 0 && (label.charAt(0) == '-' || label.charAt(0) == '+') ? 1 : 0;
+
+    if (length == start || length - start > MAX_DIGITS) {
+      return NOT_NUMBER;
+    }
+
+    long value = 0;
+    for (int i = start; i < length; i++) {
+      int digit = label.charAt(i) - '0';
+
+      if (digit < 0 || digit > 9) {
+        return NOT_NUMBER;
+      }
+      value = 10 * value + digit;
+    }
+
+    return label.charAt(0) == '-' ? -value : value;
+  }
+}
@@ -0,0 +1,225 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A level-synchronous breadth-first traversal that expands each level of the search on a {@link
+ * ForkJoinPool}, over a graph whose edges are in compressed sparse row (CSR) form.
+ *
+ * <p>The vertices of a level are split into ranges that are expanded by separate tasks. A task
+ * claims an unvisited child by setting its bit in a shared visited bitset with a compare-and-set,
+ * so every vertex joins exactly one level once. Which task wins a claim depends on timing, so each
+ * claimed vertex also keeps the position of the earliest vertex in the level that has it as a
+ * child, lowered with a compare-and-set as well. Sorting the new level by that position and then
+ * by id gives exactly the order in which {@link GraphSearch#breadthFirst} visits it.
+ *
+ * <p>Levels smaller than {@link #MIN_PARALLEL_LEVEL} are expanded on the calling thread, since most
+ * roots of a sparse graph only reach a handful of vertices.
+ */
+public class ParallelGraphSearch {
+  /** The smallest level that is expanded by more than one task. */
+  public static final int MIN_PARALLEL_LEVEL = 4096;
+
+  // How many vertices of a level each task expands before it stops splitting
+  private static final int GRAIN = 1024;
+
+  private static final int UNCLAIMED = Integer.MAX_VALUE;
+
+  private int[] offsets;
+  private int[] targets;
+  private ForkJoinPool pool;
+  private AtomicLongArray visited;
+  private AtomicIntegerArray firstParent;
+  private AtomicInteger levelEnd;
+  private long[] keys;
+  private int[] order;
+  private int orderSize;
+
+  /**
+   * Constructs a search over the given rows, which must be sorted in ascending order.
+   *
+   * @param offsets The start of each vertex's row in {@code targets}, with a final end entry.
+   * @param targets The destinations of all edges, grouped by source.
+   * @param pool The pool to expand the levels in.
+   */
+  ParallelGraphSearch(int[] offsets, int[] targets, ForkJoinPool pool) {
+    int vertexCount = offsets.length - 1;
+
+    this.offsets = offsets;
+    this.targets = targets;
+    this.pool = pool;
+    this.visited = new AtomicLongArray((vertexCount + 63) >>> 6);
+    this.firstParent = new AtomicIntegerArray(vertexCount);
+    this.levelEnd = new AtomicInteger();
+    this.keys = new long[vertexCount];
+    this.order = new int[vertexCount];
+    this.orderSize = 0;
+  }
+
+  /**
+   * Visits every vertex reachable from the roots in the same breadth-first order as {@link
+   * GraphSearch#breadthFirst}, taking the roots in the given order and the children of each vertex
+   * in ascending order.
+   *
+   * @param roots The ids of the roots.
+   * @return The ids of the vertices in the order they were visited.
+   */
+  public int[] breadthFirst(int[] roots) {
+    return pool.submit(() -> search(roots)).join();
+  }
+
+  private int[] search(int[] roots) {
+    reset();
+
+    for (int root : roots) {
+      // A root is never reachable from an earlier one, but guard the order array anyway
+      if (!claim(root)) {
+        continue;
+      }
+
+      firstParent.setPlain(root, orderSize);
+      order[orderSize++] = root;
+
+      // Each level is expanded into the order array straight after the previous one
+      int levelStart = orderSize - 1;
+      while (levelStart < orderSize) {
+        int start = levelStart;
+        levelStart = orderSize;
+
+        if (orderSize - start < MIN_PARALLEL_LEVEL) {
+          expandSequentially(start, levelStart);
+        } else {
+          expandInParallel(start, levelStart);
+        }
+      }
+    }
+
+    return Arrays.copyOf(order, orderSize);
+  }
+
+  private void reset() {
+    for (int word = 0; word < visited.length(); word++) {
+      visited.setPlain(word, 0);
+    }
+
+    for (int vertex = 0; vertex < firstParent.length(); vertex++) {
+      firstParent.setPlain(vertex, UNCLAIMED);
+    }
+
+    orderSize = 0;
+  }
+
+  private void expandSequentially(int start, int end) {
+    for (int position = start; position < end; position++) {
+      int vertex = order[position];
+
+      for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+        if (claim(targets[i])) {
+          firstParent.setPlain(targets[i], position);
+          order[orderSize++] = targets[i];
+        }
+      }
+    }
+  }
+
+  private void expandInParallel(int start, int end) {
+    levelEnd.set(end);
+    new ExpandTask(start, end, start).invoke();
+
+    int count = levelEnd.get() - end;
+
+    // Children of earlier vertices in the level come first, and the children of one vertex are
+    // visited in ascending order
+    for (int i = 0; i < count; i++) {
+      int vertex = order[end + i];
+      keys[i] = ((long) firstParent.getPlain(vertex) << 32) | vertex;
+    }
+
+    Arrays.parallelSort(keys, 0, count);
+
+    for (int i = 0; i < count; i++) {
+      order[end + i] = (int) keys[i];
+    }
+
+    orderSize = end + count;
+  }
+
+  private boolean claim(int vertex) {
+    int word = vertex >>> 6;
+    long bit = 1L << vertex;
+    long current = visited.get(word);
+
+    while ((current & bit) == 0) {
+      if (visited.compareAndSet(word, current, current | bit)) {
+        return true;
+      }
+      current = visited.get(word);
+    }
+
+    return false;
+  }
+
+  private void recordParent(int vertex, int position) {
+    int current = firstParent.get(vertex);
+
+    while (position < current && !firstParent.compareAndSet(vertex, current, position)) {
+      current = firstParent.get(vertex);
+    }
+  }
+
+  /** Expands a range of the current level, appending the vertices it claims to the order. */
+  private class ExpandTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int start;
+    private final int end;
+    private final int levelStart;
+
+    ExpandTask(int start, int end, int levelStart) {
+      this.start = start;
+      this.end = end;
+      this.levelStart = levelStart;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start > GRAIN) {
+        int middle = (start + end) >>> 1;
+        invokeAll(
+            new ExpandTask(start, middle, levelStart), new ExpandTask(middle, end, levelStart));
+        return;
+      }
+
+      int[] claimed = new int[GRAIN];
+      int count = 0;
+
+      for (int position = start; position < end; position++) {
+        int vertex = order[position];
+
+        for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+          int child = targets[i];
+
+          if (claim(child)) {
+            if (count == claimed.length) {
+              claimed = Arrays.copyOf(claimed, count * 2);
+            }
+            claimed[count++] = child;
+            recordParent(child, position);
+          } else if (firstParent.getPlain(child) >= levelStart) {
+            // Claimed by this level too, perhaps by a later vertex on another thread
+            recordParent(child, position);
+          }
+        }
+      }
+
+      // Reserve a block of the order array for the claimed vertices, which are sorted afterwards
+      int offset = levelEnd.getAndAdd(count);
+      System.arraycopy(claimed, 0, order, offset, count);
+    }
+  }
+}
@@ -0,0 +1,191 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the relation profile of a {@link CompactGraph} by checking its edges on a {@link
+ * ForkJoinPool}.
+ *
+ * <p>The vertices are split into ranges holding roughly the same number of edges, and each range is
+ * checked by its own task. For each property the tasks share the position of the earliest
+ * counterexample found so far, lowered with a compare-and-set. A task only checks a property for
+ * edges before that position, and stops as soon as every property has a counterexample before the
+ * vertex it has reached, so the other tasks are cancelled by the first counterexample to each
+ * property. Because the earliest counterexample always wins, the profile is the same one that
+ * {@link CompactGraph#getProfile()} finds with a single scan.
+ */
+public class ParallelProfiler {
+  /** The fewest edges that a range must hold before it is split between two tasks. */
+  public static final int MIN_TASK_EDGES = 16 * 1024;
+
+  private static final int NONE = Integer.MAX_VALUE;
+
+  private CompactGraph graph;
+  private ForkJoinPool pool;
+  private int[] offsets;
+  private int[] targets;
+  private TransitivityChecker checker;
+
+  // The vertex without a self loop, and the positions in targets of the other counterexamples
+  private AtomicInteger missingSelfLoop;
+  private AtomicInteger unreturnedEdge;
+  private AtomicInteger returnedEdge;
+  private AtomicInteger intransitiveEdge;
+
+  /**
+   * Constructs a profiler for the given graph.
+   *
+   * @param graph The graph to check.
+   * @param pool The pool to check the edges in.
+   */
+  ParallelProfiler(CompactGraph graph, ForkJoinPool pool) {
+    this.graph = graph;
+    this.pool = pool;
+    this.offsets = graph.getOffsets();
+    this.targets = graph.getTargets();
+    this.missingSelfLoop = new AtomicInteger(NONE);
+    this.unreturnedEdge = new AtomicInteger(NONE);
+    this.returnedEdge = new AtomicInteger(NONE);
+    this.intransitiveEdge = new AtomicInteger(NONE);
+  }
+
+  /**
+   * Checks every property of the graph.
+   *
+   * @return The relation profile of the graph.
+   */
+  public RelationProfile<String> analyse() {
+    return pool.submit(
+            () -> {
+              // The bit matrix is built once and only read by the tasks
+              checker = new TransitivityChecker(graph);
+              new CheckTask(0, graph.getVertexCount()).invoke();
+              return toProfile();
+            })
+        .join();
+  }
+
+  private RelationProfile<String> toProfile() {
+    String[] labels = graph.getLabels();
+    Edge<String> missingTransitiveEdge = null;
+    String transitiveIntermediate = null;
+
+    // Only the position of the edge A to B was kept, so find the vertex C again
+    int edge = intransitiveEdge.get();
+    if (edge != NONE) {
+      int source = findSource(edge);
+      int missing = checker.findMissingSuccessor(source, targets[edge]);
+      missingTransitiveEdge = new Edge<String>(labels[source], labels[missing]);
+      transitiveIntermediate = labels[targets[edge]];
+    }
+
+    int vertex = missingSelfLoop.get();
+
+    return new RelationProfile<String>(
+        vertex == NONE ? null : new Edge<String>(labels[vertex], labels[vertex]),
+        toEdge(unreturnedEdge.get()),
+        toEdge(returnedEdge.get()),
+        missingTransitiveEdge,
+        transitiveIntermediate);
+  }
+
+  private Edge<String> toEdge(int edge) {
+    if (edge == NONE) {
+      return null;
+    }
+
+    String[] labels = graph.getLabels();
+    return new Edge<String>(labels[findSource(edge)], labels[targets[edge]]);
+  }
+
+  private int findSource(int edge) {
+    // The last vertex whose row starts at or before the edge, skipping empty rows
+    int low = 0;
+    int high = offsets.length - 2;
+
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+
+      if (offsets[middle] <= edge) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+
+    return low;
+  }
+
+  private static void lower(AtomicInteger earliest, int position) {
+    int current = earliest.get();
+
+    while (position < current && !earliest.compareAndSet(current, position)) {
+      current = earliest.get();
+    }
+  }
+
+  /** Checks the edges of a range of vertices. */
+  private class CheckTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+
+    CheckTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (offsets[to] - offsets[from] > MIN_TASK_EDGES && to - from > 1) {
+        // Split at the vertex that holds the middle edge, so both halves do similar work
+        int middle = Math.max(from + 1, findSource((offsets[from] + offsets[to]) >>> 1));
+        invokeAll(new CheckTask(from, middle), new CheckTask(middle, to));
+        return;
+      }
+
+      for (int source = from; source < to; source++) {
+        int start = offsets[source];
+        boolean checkSelfLoop = missingSelfLoop.get() > source;
+        boolean checkReturns = unreturnedEdge.get() > start || returnedEdge.get() > start;
+        boolean checkTransitivity = intransitiveEdge.get() > start;
+
+        // Every property already failed earlier in the graph
+        if (!checkSelfLoop && !checkReturns && !checkTransitivity) {
+          return;
+        }
+
+        boolean hasSelfLoop = false;
+
+        for (int i = start; i < offsets[source + 1]; i++) {
+          int destination = targets[i];
+
+          if (destination == source) {
+            hasSelfLoop = true;
+            continue;
+          }
+
+          if (checkReturns) {
+            if (graph.hasEdge(destination, source)) {
+              lower(returnedEdge, i);
+            } else {
+              lower(unreturnedEdge, i);
+            }
+          }
+
+          if (checkTransitivity && checker.findMissingSuccessor(source, destination) >= 0) {
+            lower(intransitiveEdge, i);
+            checkTransitivity = false;
+          }
+        }
+
+        if (checkSelfLoop && !hasSelfLoop) {
+          lower(missingSelfLoop, source);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Answers whether one vertex can reach another without searching the whole graph, using the
+ * condensation of its {@link StronglyConnectedComponents} and randomized interval labels (GRAIL).
+ *
+ * <p>Every vertex of a component reaches the same vertices, so queries are answered between
+ * components. Each labelling is a depth-first traversal of the condensation from its sources, in a
+ * random order, that gives each component the interval from the lowest post-order rank below it to
+ * its own rank. If a component reaches another, its interval contains the other's in every
+ * labelling, so most negative queries are answered by comparing {@link #LABELLINGS} pairs of ints.
+ * Component numbers are in reverse topological order, which rules out half of the pairs as well.
+ *
+ * <p>Only a query that passes every check needs a search of the condensation, and that search skips
+ * any component whose intervals do not contain the destination's. An index is not safe to query
+ * from several threads at once, since the searches share their scratch arrays.
+ */
+public class ReachabilityIndex {
+  /** The number of random interval labellings kept for each component. */
+  public static final int LABELLINGS = 3;
+
+  private static final long SEED = 281;
+
+  private StronglyConnectedComponents components;
+  private int[] dagOffsets;
+  private int[] dagTargets;
+  private int count;
+
+  // The interval of each component in each labelling, at labelling * count + component
+  private int[] lows;
+  private int[] posts;
+
+  // The components already pushed by the current search are marked with its stamp
+  private int[] stamps;
+  private int stamp;
+  private IntStack stack;
+
+  /**
+   * Builds the index over the condensation of the given components.
+   *
+   * @param components The strongly connected components of the graph.
+   */
+  ReachabilityIndex(StronglyConnectedComponents components) {
+    this.components = components;
+    this.dagOffsets = components.getDagOffsets();
+    this.dagTargets = components.getDagTargets();
+    this.count = components.getComponentCount();
+    this.lows = new int[LABELLINGS * count];
+    this.posts = new int[LABELLINGS * count];
+    this.stamps = new int[count];
+    this.stack = new IntStack();
+
+    int[] sources = findSources();
+    Random random = new Random(SEED);
+
+    for (int labelling = 0; labelling < LABELLINGS; labelling++) {
+      shuffle(sources, random);
+      label(labelling * count, sources, random);
+    }
+  }
+
+  /**
+   * Checks if there is a path of one or more edges from one vertex to another.
+   *
+   * @param source The id of the vertex to start from.
+   * @param destination The id of the vertex to reach.
+   * @return {@code true} if the destination can be reached from the source.
+   */
+  public boolean canReach(int source, int destination) {
+    int from = components.getComponent(source);
+    int to = components.getComponent(destination);
+
+    // A vertex only reaches itself, or the rest of its component, through a cycle
+    if (from == to) {
+      return components.isCyclic(from);
+    }
+
+    // Edges of the condensation only go from higher component numbers to lower ones
+    if (from < to || !contains(from, to)) {
+      return false;
+    }
+
+    return search(from, to);
+  }
+
+  /**
+   * Estimates the memory held by the index, including the condensation it searches.
+   *
+   * @return The size of the index's arrays in bytes.
+   */
+  public long getMemoryBytes() {
+    return (long) Integer.BYTES * (lows.length + posts.length + stamps.length)
+        + components.getMemoryBytes();
+  }
+
+  private int[] findSources() {
+    boolean[] hasPredecessor = new boolean[count];
+    int sourceCount = count;
+
+    for (int target : dagTargets) {
+      if (!hasPredecessor[target]) {
+        hasPredecessor[target] = true;
+        sourceCount--;
+      }
+    }
+
+    int[] sources = new int[sourceCount];
+    int size = 0;
+    for (int component = 0; component < count; component++) {
+      if (!hasPredecessor[component]) {
+        sources[size++] = component;
+      }
+    }
+
+    return sources;
+  }
+
+  private void label(int base, int[] sources, Random random) {
+    // The open components of the traversal, the child each one started at and how many it has tried
+    int[] callComponent = new int[count];
+    int[] callStart = new int[count];
+    int[] callTried = new int[count];
+    boolean[] isVisited = new boolean[count];
+    int rank = 0;
+
+    for (int root : sources) {
+      int depth = 0;
+      callComponent[0] = root;
+      callStart[0] = randomChild(root, random);
+      callTried[0] = 0;
+      isVisited[root] = true;
+      lows[base + root] = Integer.MAX_VALUE;
+
+      while (depth >= 0) {
+        int component = callComponent[depth];
+        int degree = dagOffsets[component + 1] - dagOffsets[component];
+
+        if (callTried[depth] < degree) {
+          // Try the children in a random rotation of the row
+          int position = callStart[depth] + callTried[depth]++;
+          if (position >= degree) {
+            position -= degree;
+          }
+          int child = dagTargets[dagOffsets[component] + position];
+
+          if (isVisited[child]) {
+            lows[base + component] = Math.min(lows[base + component], lows[base + child]);
+          } else {
+            isVisited[child] = true;
+            lows[base + child] = Integer.MAX_VALUE;
+            depth++;
+            callComponent[depth] = child;
+            callStart[depth] = randomChild(child, random);
+            callTried[depth] = 0;
+          }
+          continue;
+        }
+
+        // Every child is finished, so the component gets the next post-order rank
+        posts[base + component] = ++rank;
+        lows[base + component] = Math.min(lows[base + component], rank);
+
+        depth--;
+        if (depth >= 0) {
+          int parent = callComponent[depth];
+          lows[base + parent] = Math.min(lows[base + parent], lows[base + component]);
+        }
+      }
+    }
+  }
+
+  private int randomChild(int component, Random random) {
+    int degree = dagOffsets[component + 1] - dagOffsets[component];
+    return degree == 0 ? 0 : random.nextInt(degree);
+  }
+
+  private static void shuffle(int[] values, Random random) {
+    for (int i = values.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int value = values[i];
+      values[i] = values[j];
+      values[j] = value;
+    }
+  }
+
+  private boolean contains(int outer, int inner) {
+    for (int base = 0; base < lows.length; base += count) {
+      if (lows[base + outer] > lows[base + inner] || posts[base + inner] > posts[base + outer]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean search(int from, int to) {
+    if (++stamp == 0) {
+      // The stamp wrapped around, so clear the marks left by old searches
+      Arrays.fill(stamps, 0);
+      stamp = 1;
+    }
+
+    stack.clear();
+    stack.push(from);
+    stamps[from] = stamp;
+
+    while (!stack.isEmpty()) {
+      int component = stack.pop();
+
+      for (int i = dagOffsets[component]; i < dagOffsets[component + 1]; i++) {
+        int child = dagTargets[i];
+
+        if (child == to) {
+          return true;
+        }
+
+        // Only follow children that could still reach the destination
+        if (stamps[child] != stamp && child > to && contains(child, to)) {
+          stamps[child] = stamp;
+          stack.push(child);
+        }
+      }
+    }
+
+    return false;
+  }
+}
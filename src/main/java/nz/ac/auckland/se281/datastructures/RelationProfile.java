@@ -0,0 +1,134 @@
+package nz.ac.auckland.se281.datastructures;
+
+/**
+ * The relation properties of a graph, found together in a single scan of its edges.
+ *
+ * <p>Each property that does not hold is recorded with the first counterexample that was found, so
+ * a property holds exactly when its counterexample is {@code null}.
+ *
+ * @param <T> The type of each vertex.
+ */
+public class RelationProfile<T> {
+  private Edge<T> missingSelfLoop;
+  private Edge<T> unreturnedEdge;
+  private Edge<T> returnedEdge;
+  private Edge<T> missingTransitiveEdge;
+  private T transitiveIntermediate;
+
+  /**
+   * Constructs a profile from the counterexamples found for each property.
+   *
+   * @param missingSelfLoop A self loop that is missing, or {@code null} if the graph is reflexive.
+   * @param unreturnedEdge An edge A to B without an edge B to A, or {@code null} if the graph is
+   *     symmetric.
+   * @param returnedEdge An edge A to B with an edge B to A where A and B differ, or {@code null} if
+   *     the graph is antisymmetric.
+   * @param missingTransitiveEdge An edge A to C that is missing even though A to B and B to C
+   *     exist, or {@code null} if the graph is transitive.
+   * @param transitiveIntermediate The vertex B of the transitivity counterexample.
+   */
+  RelationProfile(
+      Edge<T> missingSelfLoop,
+      Edge<T> unreturnedEdge,
+      Edge<T> returnedEdge,
+      Edge<T> missingTransitiveEdge,
+      T transitiveIntermediate) {
+    this.missingSelfLoop = missingSelfLoop;
+    this.unreturnedEdge = unreturnedEdge;
+    this.returnedEdge = returnedEdge;
+    this.missingTransitiveEdge = missingTransitiveEdge;
+    this.transitiveIntermediate = transitiveIntermediate;
+  }
+
+  /**
+   * Checks if the graph is reflexive.
+   *
+   * @return {@code true} if the graph is reflexive, {@code false} otherwise.
+   */
+  public boolean isReflexive() {
+    return missingSelfLoop == null;
+  }
+
+  /**
+   * Checks if the graph is symmetric.
+   *
+   * @return {@code true} if the graph is symmetric, {@code false} otherwise.
+   */
+  public boolean isSymmetric() {
+    return unreturnedEdge == null;
+  }
+
+  /**
+   * Checks if the graph is antisymmetric.
+   *
+   * @return {@code true} if the graph is antisymmetric, {@code false} otherwise.
+   */
+  public boolean isAntiSymmetric() {
+    return returnedEdge == null;
+  }
+
+  /**
+   * Checks if the graph is transitive.
+   *
+   * @return {@code true} if the graph is transitive, {@code false} otherwise.
+   */
+  public boolean isTransitive() {
+    return missingTransitiveEdge == null;
+  }
+
+  /**
+   * Checks if the graph is an equivalence relation, i.e. it is reflexive, symmetric and transitive.
+   *
+   * @return {@code true} if the graph is an equivalence relation, {@code false} otherwise.
+   */
+  public boolean isEquivalence() {
+    return isReflexive() && isSymmetric() && isTransitive();
+  }
+
+  /**
+   * Retrieves the self loop whose absence makes the graph not reflexive.
+   *
+   * @return The missing self loop, or {@code null} if the graph is reflexive.
+   */
+  public Edge<T> getReflexivityCounterexample() {
+    return missingSelfLoop;
+  }
+
+  /**
+   * Retrieves an edge whose reverse is missing, which makes the graph not symmetric.
+   *
+   * @return The edge, or {@code null} if the graph is symmetric.
+   */
+  public Edge<T> getSymmetryCounterexample() {
+    return unreturnedEdge;
+  }
+
+  /**
+   * Retrieves an edge between two distinct vertices whose reverse also exists, which makes the
+   * graph not antisymmetric.
+   *
+   * @return The edge, or {@code null} if the graph is antisymmetric.
+   */
+  public Edge<T> getAntiSymmetryCounterexample() {
+    return returnedEdge;
+  }
+
+  /**
+   * Retrieves the edge A to C that is missing even though A to B and B to C exist, which makes the
+   * graph not transitive. The vertex B is given by {@link #getTransitivityIntermediate()}.
+   *
+   * @return The missing edge, or {@code null} if the graph is transitive.
+   */
+  public Edge<T> getTransitivityCounterexample() {
+    return missingTransitiveEdge;
+  }
+
+  /**
+   * Retrieves the vertex B of the transitivity counterexample.
+   *
+   * @return The intermediate vertex, or {@code null} if the graph is transitive.
+   */
+  public T getTransitivityIntermediate() {
+    return transitiveIntermediate;
+  }
+}
@@ -0,0 +1,217 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Unweighted shortest paths over a graph whose edges are in compressed sparse row (CSR) form, in
+ * both directions.
+ *
+ * <p>Distances and parents are kept in int arrays sized for the whole graph when the searches are
+ * created. Only the entries that a search touches are reset before the next one, so a query that
+ * stops early costs nothing for the rest of the graph.
+ *
+ * <p>A point-to-point query runs a bidirectional breadth-first search: one search follows edges
+ * forwards from the source and the other follows them backwards from the destination, and each step
+ * expands a whole level of whichever side has the smaller frontier. The first level that reaches a
+ * vertex already seen from the other side holds the shortest path, so on a large sparse graph the
+ * two searches only meet after touching a small fraction of the vertices.
+ */
+public class ShortestPaths {
+  private static final int NONE = -1;
+
+  private int[] offsets;
+  private int[] targets;
+  private int[] reverseOffsets;
+  private int[] sources;
+
+  // The distance from the source, or to the destination, and the next vertex towards it
+  private int[] forwardDistance;
+  private int[] forwardParent;
+  private int[] backwardDistance;
+  private int[] backwardParent;
+
+  // The vertices seen by each side in the order they were seen, which is also the search queue
+  private int[] forwardOrder;
+  private int forwardSize;
+  private int[] backwardOrder;
+  private int backwardSize;
+
+  /**
+   * Constructs the searches over the given rows.
+   *
+   * @param offsets The start of each vertex's row in {@code targets}, with a final end entry.
+   * @param targets The destinations of all edges, grouped by source.
+   * @param reverseOffsets The start of each vertex's row in {@code sources}, with a final end
+   *     entry.
+   * @param sources The sources of all edges, grouped by destination.
+   */
+  ShortestPaths(int[] offsets, int[] targets, int[] reverseOffsets, int[] sources) {
+    int vertexCount = offsets.length - 1;
+
+    this.offsets = offsets;
+    this.targets = targets;
+    this.reverseOffsets = reverseOffsets;
+    this.sources = sources;
+    this.forwardDistance = new int[vertexCount];
+    this.forwardParent = new int[vertexCount];
+    this.backwardDistance = new int[vertexCount];
+    this.backwardParent = new int[vertexCount];
+    this.forwardOrder = new int[vertexCount];
+    this.backwardOrder = new int[vertexCount];
+
+    Arrays.fill(forwardDistance, NONE);
+    Arrays.fill(backwardDistance, NONE);
+  }
+
+  /**
+   * Finds the number of edges on a shortest path from the source to every vertex.
+   *
+   * @param source The id of the vertex to start from.
+   * @return The distance of each vertex, indexed by id, or -1 for a vertex that cannot be reached.
+   */
+  public int[] getDistances(int source) {
+    reset();
+    seeForwards(source, 0, NONE);
+
+    for (int levelStart = 0; levelStart < forwardSize; ) {
+      int levelEnd = forwardSize;
+      expandForwards(levelStart, levelEnd, null);
+      levelStart = levelEnd;
+    }
+
+    return Arrays.copyOf(forwardDistance, forwardDistance.length);
+  }
+
+  /**
+   * Finds a path with the fewest edges from the source to the destination.
+   *
+   * @param source The id of the vertex to start from.
+   * @param destination The id of the vertex to reach.
+   * @return The ids of the vertices on the path, starting with the source and ending with the
+   *     destination, or {@code null} if there is no path.
+   */
+  public int[] getShortestPath(int source, int destination) {
+    reset();
+    seeForwards(source, 0, NONE);
+    seeBackwards(destination, 0, NONE);
+
+    if (source == destination) {
+      return new int[] {source};
+    }
+
+    // The best edge found so far that joins the two searches, and the length of its path
+    int[] meeting = {NONE, NONE, Integer.MAX_VALUE};
+    int forwardStart = 0;
+    int backwardStart = 0;
+
+    while (forwardStart < forwardSize && backwardStart < backwardSize) {
+      if (forwardSize - forwardStart <= backwardSize - backwardStart) {
+        int levelEnd = forwardSize;
+        expandForwards(forwardStart, levelEnd, meeting);
+        forwardStart = levelEnd;
+      } else {
+        int levelEnd = backwardSize;
+        expandBackwards(backwardStart, levelEnd, meeting);
+        backwardStart = levelEnd;
+      }
+
+      // Every edge out of a whole level was checked, so the shortest of them is the shortest path
+      if (meeting[2] != Integer.MAX_VALUE) {
+        return buildPath(meeting[0], meeting[1], meeting[2]);
+      }
+    }
+
+    return null;
+  }
+
+  long getMemoryBytes() {
+    // Distances, parents and the order seen, for each side
+    return 6L * Integer.BYTES * forwardDistance.length;
+  }
+
+  private void expandForwards(int start, int end, int[] meeting) {
+    for (int position = start; position < end; position++) {
+      int vertex = forwardOrder[position];
+      int distance = forwardDistance[vertex] + 1;
+
+      for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+        int child = targets[i];
+
+        if (meeting != null && backwardDistance[child] != NONE) {
+          recordMeeting(meeting, vertex, child, distance + backwardDistance[child]);
+        }
+        if (forwardDistance[child] == NONE) {
+          seeForwards(child, distance, vertex);
+        }
+      }
+    }
+  }
+
+  private void expandBackwards(int start, int end, int[] meeting) {
+    for (int position = start; position < end; position++) {
+      int vertex = backwardOrder[position];
+      int distance = backwardDistance[vertex] + 1;
+
+      for (int i = reverseOffsets[vertex]; i < reverseOffsets[vertex + 1]; i++) {
+        int parent = sources[i];
+
+        if (forwardDistance[parent] != NONE) {
+          recordMeeting(meeting, parent, vertex, distance + forwardDistance[parent]);
+        }
+        if (backwardDistance[parent] == NONE) {
+          seeBackwards(parent, distance, vertex);
+        }
+      }
+    }
+  }
+
+  private static void recordMeeting(int[] meeting, int from, int to, int length) {
+    if (length < meeting[2]) {
+      meeting[0] = from;
+      meeting[1] = to;
+      meeting[2] = length;
+    }
+  }
+
+  private int[] buildPath(int from, int to, int length) {
+    int[] path = new int[length + 1];
+
+    // Walk back to the source from one end of the joining edge, and on to the destination from
+    // the other
+    int position = forwardDistance[from];
+    for (int vertex = from; vertex != NONE; vertex = forwardParent[vertex]) {
+      path[position--] = vertex;
+    }
+
+    position = forwardDistance[from] + 1;
+    for (int vertex = to; vertex != NONE; vertex = backwardParent[vertex]) {
+      path[position++] = vertex;
+    }
+
+    return path;
+  }
+
+  private void seeForwards(int vertex, int distance, int parent) {
+    forwardDistance[vertex] = distance;
+    forwardParent[vertex] = parent;
+    forwardOrder[forwardSize++] = vertex;
+  }
+
+  private void seeBackwards(int vertex, int distance, int child) {
+    backwardDistance[vertex] = distance;
+    backwardParent[vertex] = child;
+    backwardOrder[backwardSize++] = vertex;
+  }
+
+  private void reset() {
+    for (int i = 0; i < forwardSize; i++) {
+      forwardDistance[forwardOrder[i]] = NONE;
+    }
+    for (int i = 0; i < backwardSize; i++) {
+      backwardDistance[backwardOrder[i]] = NONE;
+    }
+
+    forwardSize = 0;
+    backwardSize = 0;
+  }
+}
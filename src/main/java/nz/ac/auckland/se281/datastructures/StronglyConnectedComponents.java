@@ -0,0 +1,255 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * The strongly connected components of a graph whose edges are in compressed sparse row (CSR)
+ * form, found with an iterative version of Tarjan's algorithm.
+ *
+ * <p>The recursion of the textbook algorithm is replaced by an explicit call stack holding each
+ * open vertex and the position of the next edge to follow from it, so a long chain cannot overflow
+ * the thread stack.
+ *
+ * <p>A component is numbered when Tarjan's algorithm finishes it, which is only after every
+ * component it can reach has been finished. So every edge of the condensation goes from a higher
+ * component number to a lower one, and counting up through the components visits them in reverse
+ * topological order.
+ */
+public class StronglyConnectedComponents {
+  private static final int UNVISITED = -1;
+
+  private int[] offsets;
+  private int[] targets;
+  private int componentCount;
+  private int[] components;
+  private int[] memberOffsets;
+  private int[] members;
+  private boolean[] cyclic;
+  private int[] dagOffsets;
+  private int[] dagTargets;
+
+  /**
+   * Finds the strongly connected components of the given rows, which must be sorted in ascending
+   * order.
+   *
+   * @param offsets The start of each vertex's row in {@code targets}, with a final end entry.
+   * @param targets The destinations of all edges, grouped by source.
+   */
+  StronglyConnectedComponents(int[] offsets, int[] targets) {
+    this.offsets = offsets;
+    this.targets = targets;
+    findComponents();
+    groupMembers();
+    condense();
+  }
+
+  /**
+   * Retrieves the number of strongly connected components.
+   *
+   * @return The number of components.
+   */
+  public int getComponentCount() {
+    return componentCount;
+  }
+
+  /**
+   * Retrieves the component that a vertex belongs to.
+   *
+   * @param vertex The id of the vertex.
+   * @return The number of its component.
+   */
+  public int getComponent(int vertex) {
+    return components[vertex];
+  }
+
+  /**
+   * Retrieves the vertices in a component.
+   *
+   * @param component The number of the component.
+   * @return The ids of its vertices in ascending order.
+   */
+  public int[] getMembers(int component) {
+    return Arrays.copyOfRange(members, memberOffsets[component], memberOffsets[component + 1]);
+  }
+
+  /**
+   * Checks if a component contains a cycle, i.e. it has more than one vertex or its only vertex has
+   * a self loop.
+   *
+   * @param component The number of the component.
+   * @return {@code true} if every vertex of the component can reach itself.
+   */
+  public boolean isCyclic(int component) {
+    return cyclic[component];
+  }
+
+  /**
+   * Retrieves the components that a component has an edge to in the condensation, which is the
+   * graph with each component merged into a single vertex and without self loops or parallel edges.
+   *
+   * @param component The number of the component.
+   * @return The numbers of its successors in ascending order, which are all lower than its own.
+   */
+  public int[] getSuccessors(int component) {
+    return Arrays.copyOfRange(dagTargets, dagOffsets[component], dagOffsets[component + 1]);
+  }
+
+  long getMemoryBytes() {
+    long ints =
+        (long) components.length
+            + memberOffsets.length
+            + members.length
+            + dagOffsets.length
+            + dagTargets.length;
+    return Integer.BYTES * ints + cyclic.length;
+  }
+
+  int[] getMemberOffsets() {
+    return memberOffsets;
+  }
+
+  int[] getMembers() {
+    return members;
+  }
+
+  int[] getDagOffsets() {
+    return dagOffsets;
+  }
+
+  int[] getDagTargets() {
+    return dagTargets;
+  }
+
+  private void findComponents() {
+    int vertexCount = offsets.length - 1;
+    int[] index = new int[vertexCount];
+    int[] low = new int[vertexCount];
+    boolean[] isOnStack = new boolean[vertexCount];
+    IntStack stack = new IntStack(vertexCount);
+
+    // The open vertices of the depth-first search, and the next edge to follow from each
+    int[] callVertex = new int[vertexCount];
+    int[] callEdge = new int[vertexCount];
+
+    Arrays.fill(index, UNVISITED);
+    components = new int[vertexCount];
+    componentCount = 0;
+    int counter = 0;
+
+    for (int root = 0; root < vertexCount; root++) {
+      if (index[root] != UNVISITED) {
+        continue;
+      }
+
+      int depth = 0;
+      callVertex[0] = root;
+      callEdge[0] = offsets[root];
+      index[root] = counter;
+      low[root] = counter++;
+      stack.push(root);
+      isOnStack[root] = true;
+
+      while (depth >= 0) {
+        int vertex = callVertex[depth];
+
+        if (callEdge[depth] < offsets[vertex + 1]) {
+          int child = targets[callEdge[depth]++];
+
+          if (index[child] == UNVISITED) {
+            // Descend into the child, as the recursive algorithm would
+            index[child] = counter;
+            low[child] = counter++;
+            stack.push(child);
+            isOnStack[child] = true;
+            depth++;
+            callVertex[depth] = child;
+            callEdge[depth] = offsets[child];
+          } else if (isOnStack[child]) {
+            low[vertex] = Math.min(low[vertex], index[child]);
+          }
+          continue;
+        }
+
+        // Every edge has been followed, so the vertex is finished
+        if (low[vertex] == index[vertex]) {
+          int member;
+          do {
+            member = stack.pop();
+            isOnStack[member] = false;
+            components[member] = componentCount;
+          } while (member != vertex);
+          componentCount++;
+        }
+
+        depth--;
+        if (depth >= 0) {
+          int parent = callVertex[depth];
+          low[parent] = Math.min(low[parent], low[vertex]);
+        }
+      }
+    }
+  }
+
+  private void groupMembers() {
+    int vertexCount = components.length;
+    memberOffsets = new int[componentCount + 1];
+    members = new int[vertexCount];
+    cyclic = new boolean[componentCount];
+
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      memberOffsets[components[vertex] + 1]++;
+    }
+    for (int component = 0; component < componentCount; component++) {
+      memberOffsets[component + 1] += memberOffsets[component];
+    }
+
+    // Placing the vertices in ascending order keeps each component's members sorted
+    int[] next = Arrays.copyOf(memberOffsets, componentCount);
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      members[next[components[vertex]]++] = vertex;
+    }
+
+    for (int component = 0; component < componentCount; component++) {
+      int first = members[memberOffsets[component]];
+      cyclic[component] =
+          memberOffsets[component + 1] - memberOffsets[component] > 1
+              || Arrays.binarySearch(targets, offsets[first], offsets[first + 1], first) >= 0;
+    }
+  }
+
+  private void condense() {
+    dagOffsets = new int[componentCount + 1];
+    int[] buffer = new int[16];
+    int size = 0;
+
+    // The last component whose row each component was added to, to skip parallel edges
+    int[] lastSource = new int[componentCount];
+    Arrays.fill(lastSource, UNVISITED);
+
+    for (int component = 0; component < componentCount; component++) {
+      int start = size;
+
+      for (int i = memberOffsets[component]; i < memberOffsets[component + 1]; i++) {
+        int vertex = members[i];
+
+        for (int j = offsets[vertex]; j < offsets[vertex + 1]; j++) {
+          int destination = components[targets[j]];
+
+          if (destination != component && lastSource[destination] != component) {
+            lastSource[destination] = component;
+
+            if (size == buffer.length) {
+              buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = destination;
+          }
+        }
+      }
+
+      Arrays.sort(buffer, start, size);
+      dagOffsets[component + 1] = size;
+    }
+
+    dagTargets = Arrays.copyOf(buffer, size);
+  }
+}
@@ -0,0 +1,129 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Orders the vertices of a graph whose edges are in compressed sparse row (CSR) form so that every
+ * edge goes from an earlier vertex to a later one, using Kahn's algorithm.
+ *
+ * <p>The in-degree of every vertex is counted into an int array in one pass over the edges. The
+ * vertices whose in-degree has dropped to zero wait in an {@link IntMinHeap}, so of all the valid
+ * orders the one with the smallest ids first is chosen, in O((V + E) log V) time. If the heap runs
+ * out before every vertex has been placed, the vertices left over all lie on or after a cycle, and
+ * one of those cycles is found by walking backwards through the edges between them.
+ */
+public class TopologicalSort {
+  private static final int UNSEEN = -1;
+
+  private int[] order;
+  private int[] cycle;
+
+  /**
+   * Sorts the given rows.
+   *
+   * @param offsets The start of each vertex's row in {@code targets}, with a final end entry.
+   * @param targets The destinations of all edges, grouped by source.
+   * @param reverseOffsets The start of each vertex's row in {@code sources}, with a final end
+   *     entry.
+   * @param sources The sources of all edges, grouped by destination.
+   */
+  TopologicalSort(int[] offsets, int[] targets, int[] reverseOffsets, int[] sources) {
+    int vertexCount = offsets.length - 1;
+    int[] inDegree = new int[vertexCount];
+
+    for (int target : targets) {
+      inDegree[target]++;
+    }
+
+    IntMinHeap ready = new IntMinHeap(vertexCount);
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      if (inDegree[vertex] == 0) {
+        ready.push(vertex);
+      }
+    }
+
+    int[] placed = new int[vertexCount];
+    int size = 0;
+
+    while (!ready.isEmpty()) {
+      int vertex = ready.pop();
+      placed[size++] = vertex;
+
+      for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+        if (--inDegree[targets[i]] == 0) {
+          ready.push(targets[i]);
+        }
+      }
+    }
+
+    if (size == vertexCount) {
+      order = placed;
+    } else {
+      cycle = findCycle(inDegree, reverseOffsets, sources);
+    }
+  }
+
+  /**
+   * Checks if the graph has no cycles, including self loops.
+   *
+   * @return {@code true} if the graph is a directed acyclic graph.
+   */
+  public boolean isAcyclic() {
+    return order != null;
+  }
+
+  /**
+   * Retrieves the topological order of the vertices.
+   *
+   * @return The ids of the vertices so that every edge goes forwards, taking the smallest id
+   *     available at each step, or {@code null} if the graph has a cycle.
+   */
+  public int[] getOrder() {
+    return order == null ? null : Arrays.copyOf(order, order.length);
+  }
+
+  /**
+   * Retrieves a cycle that stops the graph from being sorted.
+   *
+   * @return The ids of the vertices around the cycle, starting and ending with the same vertex, or
+   *     {@code null} if the graph is acyclic.
+   */
+  public int[] getCycle() {
+    return cycle == null ? null : Arrays.copyOf(cycle, cycle.length);
+  }
+
+  private static int[] findCycle(int[] inDegree, int[] reverseOffsets, int[] sources) {
+    // Every vertex left with an in-degree above zero has a predecessor that was also left over, so
+    // walking backwards through them must come back to a vertex it has already visited
+    int[] step = new int[inDegree.length];
+    Arrays.fill(step, UNSEEN);
+    IntStack walk = new IntStack();
+
+    int vertex = 0;
+    while (inDegree[vertex] == 0) {
+      vertex++;
+    }
+
+    while (step[vertex] == UNSEEN) {
+      step[vertex] = walk.size();
+      walk.push(vertex);
+
+      int i = reverseOffsets[vertex];
+      while (inDegree[sources[i]] == 0) {
+        i++;
+      }
+      vertex = sources[i];
+    }
+
+    // The walk went backwards, so popping the loop it closed follows the edges forwards from the
+    // vertex it came back to
+    int length = walk.size() - step[vertex];
+    int[] cycle = new int[length + 1];
+    cycle[0] = vertex;
+    for (int i = 1; i <= length; i++) {
+      cycle[i] = walk.pop();
+    }
+
+    return cycle;
+  }
+}
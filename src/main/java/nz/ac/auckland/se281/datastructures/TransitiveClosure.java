@@ -0,0 +1,407 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the transitive closure and the transitive reduction of a {@link CompactGraph} on a
+ * {@link ForkJoinPool}.
+ *
+ * <p>The graph is first condensed into its {@link StronglyConnectedComponents}, since every vertex
+ * of a component reaches exactly the same vertices. The components that each component reaches are
+ * then kept as a row of bits, and a row is the bitwise OR of the rows of its successors in the
+ * condensation (Purdom's algorithm), 64 components per {@code long}. Components are numbered in
+ * reverse topological order, so a successor's row only has bits below its own number and only
+ * that prefix of the row is merged.
+ *
+ * <p>The rows are filled level by level, where a component's level is the length of the longest
+ * path out of it. The rows of one level only read rows of lower levels, so each level is split
+ * into blocks of rows that are filled by separate tasks.
+ */
+public class TransitiveClosure {
+  // How many rows of a level each task fills before it stops splitting
+  private static final int GRAIN = 64;
+
+  // The largest array that the virtual machine will reliably allocate
+  private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+  // Only half of the free heap is counted on, since other threads and sessions allocate too
+  private static final int HEAP_SHARE = 2;
+
+  private CompactGraph graph;
+  private ForkJoinPool pool;
+  private StronglyConnectedComponents components;
+  private int[] memberOffsets;
+  private int[] members;
+  private int[] dagOffsets;
+  private int[] dagTargets;
+  private int words;
+  private long[] reach;
+
+  /**
+   * Constructs the closure of the given graph.
+   *
+   * @param graph The graph to close.
+   * @param pool The pool to fill the rows of the closure in.
+   * @throws IllegalArgumentException If the graph has too many strongly connected components for
+   *     their rows to fit in an array or in the free heap.
+   */
+  TransitiveClosure(CompactGraph graph, ForkJoinPool pool) {
+    this.graph = graph;
+    this.pool = pool;
+    this.components = graph.getStronglyConnectedComponents();
+    this.memberOffsets = components.getMemberOffsets();
+    this.members = components.getMembers();
+    this.dagOffsets = components.getDagOffsets();
+    this.dagTargets = components.getDagTargets();
+
+    int count = components.getComponentCount();
+    this.words = (count + 63) >>> 6;
+
+    if ((long) count * words > MAX_ARRAY_LENGTH) {
+      throw new IllegalArgumentException("The graph has too many components to close: " + count);
+    }
+    // The rows, and the level of each component with the components sorted by level
+    checkHeap((long) count * words * Long.BYTES + 2L * count * Integer.BYTES);
+  }
+
+  /**
+   * Builds the transitive closure, which has an edge from A to B whenever there is a path of one or
+   * more edges from A to B in the graph.
+   *
+   * @return The closure, with the same vertices as the graph.
+   * @throws IllegalArgumentException If the closure has too many edges to fit in an array or in
+   *     the free heap.
+   */
+  public CompactGraph closure() {
+    return pool.submit(
+            () -> {
+              fillReach();
+              return buildClosure();
+            })
+        .join();
+  }
+
+  /**
+   * Builds a transitive reduction, which is a graph with as few edges as possible whose transitive
+   * closure is the same as the graph's.
+   *
+   * <p>The vertices of each strongly connected component are joined by a single cycle in ascending
+   * order, and a lone vertex keeps its self loop. Between components, only the edges of the
+   * condensation that are not implied by a longer path are kept, each joining the smallest vertices
+   * of the two components. The reduction of an acyclic graph is unique, so it is then exactly the
+   * graph without its redundant edges.
+   *
+   * @return The reduction, with the same vertices as the graph.
+   * @throws IllegalArgumentException If the reduction does not fit in the free heap.
+   */
+  public CompactGraph reduction() {
+    return pool.submit(
+            () -> {
+              fillReach();
+              return buildReduction();
+            })
+        .join();
+  }
+
+  private void fillReach() {
+    if (reach != null) {
+      return;
+    }
+
+    int count = components.getComponentCount();
+    int[] level = new int[count];
+    int levelCount = 0;
+
+    // Successors have lower numbers, so their levels are already known
+    for (int component = 0; component < count; component++) {
+      for (int i = dagOffsets[component]; i < dagOffsets[component + 1]; i++) {
+        level[component] = Math.max(level[component], level[dagTargets[i]] + 1);
+      }
+      levelCount = Math.max(levelCount, level[component] + 1);
+    }
+
+    int[] levelOffsets = new int[levelCount + 1];
+    int[] byLevel = new int[count];
+
+    for (int component = 0; component < count; component++) {
+      levelOffsets[level[component] + 1]++;
+    }
+    for (int i = 0; i < levelCount; i++) {
+      levelOffsets[i + 1] += levelOffsets[i];
+    }
+
+    int[] next = Arrays.copyOf(levelOffsets, levelCount);
+    for (int component = 0; component < count; component++) {
+      byLevel[next[level[component]]++] = component;
+    }
+
+    reach = new long[count * words];
+
+    for (int i = 0; i < levelCount; i++) {
+      new FillTask(byLevel, levelOffsets[i], levelOffsets[i + 1]).invoke();
+    }
+  }
+
+  private static void checkHeap(long bytes) {
+    Runtime runtime = Runtime.getRuntime();
+    long free = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+
+    // Failing here leaves the heap as it was, where running out of it part way would not
+    if (bytes > free / HEAP_SHARE) {
+      throw new IllegalArgumentException(
+          "The closure needs " + bytes + " bytes but only " + free + " are free");
+    }
+  }
+
+  private void fillRow(int component) {
+    int row = component * words;
+
+    for (int i = dagOffsets[component]; i < dagOffsets[component + 1]; i++) {
+      int successor = dagTargets[i];
+      int successorRow = successor * words;
+
+      // The successor only reaches components with lower numbers than its own
+      for (int word = 0; word <= successor >>> 6; word++) {
+        reach[row + word] |= reach[successorRow + word];
+      }
+      reach[row + (successor >>> 6)] |= 1L << successor;
+    }
+  }
+
+  private CompactGraph buildClosure() {
+    int vertexCount = graph.getVertexCount();
+    int count = components.getComponentCount();
+    int[] rowSizes = new int[count];
+    long edgeCount = 0;
+
+    for (int component = 0; component < count; component++) {
+      long size = components.isCyclic(component) ? memberCount(component) : 0;
+
+      int row = component * words;
+      for (int word = 0; word < words; word++) {
+        long bits = reach[row + word];
+
+        while (bits != 0) {
+          size += memberCount((word << 6) + Long.numberOfTrailingZeros(bits));
+          bits &= bits - 1;
+        }
+      }
+
+      edgeCount += size * memberCount(component);
+      if (edgeCount > MAX_ARRAY_LENGTH) {
+        throw new IllegalArgumentException("The closure has too many edges: " + edgeCount);
+      }
+      rowSizes[component] = (int) size;
+    }
+
+    // The rows of the closure, and the reverse rows that the new graph builds from them
+    checkHeap(2 * (edgeCount + vertexCount + 1) * Integer.BYTES);
+
+    int[] offsets = new int[vertexCount + 1];
+    for (int vertex = 0; vertex < vertexCount; vertex++) {
+      offsets[vertex + 1] = offsets[vertex] + rowSizes[components.getComponent(vertex)];
+    }
+
+    int[] targets = new int[(int) edgeCount];
+    new ExpandTask(offsets, targets, 0, count).invoke();
+
+    return new CompactGraph(graph.getLabels(), graph.getKeys(), offsets, targets);
+  }
+
+  private int expandRow(int component, int[] targets, int start) {
+    int size = start;
+
+    if (components.isCyclic(component)) {
+      size = appendMembers(component, targets, size);
+    }
+
+    int row = component * words;
+    for (int word = 0; word < words; word++) {
+      long bits = reach[row + word];
+
+      while (bits != 0) {
+        size = appendMembers((word << 6) + Long.numberOfTrailingZeros(bits), targets, size);
+        bits &= bits - 1;
+      }
+    }
+
+    // The members of different components interleave, so the row still has to be sorted
+    Arrays.sort(targets, start, size);
+    return size;
+  }
+
+  private CompactGraph buildReduction() {
+    int count = components.getComponentCount();
+    int vertexCount = graph.getVertexCount();
+
+    // The edge lists, then the rows that they are sorted into, a copy of the rows without
+    // duplicates and the reverse rows, each at most one int per vertex and condensation edge
+    checkHeap(dagTargets.length + 6L * (vertexCount + dagTargets.length + 1) * Integer.BYTES);
+
+    boolean[] isKept = new boolean[dagTargets.length];
+    new ReduceTask(isKept, 0, count).invoke();
+
+    int[] sources = new int[vertexCount + dagTargets.length];
+    int[] destinations = new int[sources.length];
+    int edgeCount = 0;
+
+    for (int component = 0; component < count; component++) {
+      int first = memberOffsets[component];
+      int last = memberOffsets[component + 1] - 1;
+
+      // A cycle through the members in ascending order, or the self loop of a lone vertex
+      if (components.isCyclic(component)) {
+        for (int i = first; i <= last; i++) {
+          sources[edgeCount] = members[i];
+          destinations[edgeCount++] = members[i == last ? first : i + 1];
+        }
+      }
+
+      for (int i = dagOffsets[component]; i < dagOffsets[component + 1]; i++) {
+        if (isKept[i]) {
+          sources[edgeCount] = members[first];
+          destinations[edgeCount++] = members[memberOffsets[dagTargets[i]]];
+        }
+      }
+    }
+
+    return CompactGraph.fromEdges(
+        graph.getLabels(), graph.getKeys(), sources, destinations, edgeCount);
+  }
+
+  private void reduceRow(int component, long[] implied, boolean[] isKept) {
+    int start = dagOffsets[component];
+    int end = dagOffsets[component + 1];
+
+    if (end - start < 2) {
+      // A single edge out of a component is never implied by another path
+      Arrays.fill(isKept, start, end, true);
+      return;
+    }
+
+    // The row is sorted, so the last successor has the widest row
+    int width = (dagTargets[end - 1] >>> 6) + 1;
+    Arrays.fill(implied, 0, width, 0);
+
+    // The components reached through a path of two or more edges
+    for (int i = start; i < end; i++) {
+      int successorRow = dagTargets[i] * words;
+
+      for (int word = 0; word <= dagTargets[i] >>> 6; word++) {
+        implied[word] |= reach[successorRow + word];
+      }
+    }
+
+    for (int i = start; i < end; i++) {
+      isKept[i] = (implied[dagTargets[i] >>> 6] & (1L << dagTargets[i])) == 0;
+    }
+  }
+
+  private int memberCount(int component) {
+    return memberOffsets[component + 1] - memberOffsets[component];
+  }
+
+  private int appendMembers(int component, int[] targets, int size) {
+    int count = memberCount(component);
+    System.arraycopy(members, memberOffsets[component], targets, size, count);
+    return size + count;
+  }
+
+  /** Fills the rows of a block of components that are all on the same level. */
+  private class FillTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] byLevel;
+    private final int from;
+    private final int to;
+
+    FillTask(int[] byLevel, int from, int to) {
+      this.byLevel = byLevel;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > GRAIN) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new FillTask(byLevel, from, middle), new FillTask(byLevel, middle, to));
+        return;
+      }
+
+      for (int i = from; i < to; i++) {
+        fillRow(byLevel[i]);
+      }
+    }
+  }
+
+  /** Writes the closure rows of the members of a range of components. */
+  private class ExpandTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int from;
+    private final int to;
+
+    ExpandTask(int[] offsets, int[] targets, int from, int to) {
+      this.offsets = offsets;
+      this.targets = targets;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > GRAIN) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new ExpandTask(offsets, targets, from, middle),
+            new ExpandTask(offsets, targets, middle, to));
+        return;
+      }
+
+      for (int component = from; component < to; component++) {
+        int first = members[memberOffsets[component]];
+        int start = offsets[first];
+        int end = expandRow(component, targets, start);
+
+        // Every member of a component reaches the same vertices, so the row is only built once
+        for (int i = memberOffsets[component] + 1; i < memberOffsets[component + 1]; i++) {
+          System.arraycopy(targets, start, targets, offsets[members[i]], end - start);
+        }
+      }
+    }
+  }
+
+  /** Finds which condensation edges out of a range of components are not implied. */
+  private class ReduceTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean[] isKept;
+    private final int from;
+    private final int to;
+
+    ReduceTask(boolean[] isKept, int from, int to) {
+      this.isKept = isKept;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > GRAIN) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new ReduceTask(isKept, from, middle), new ReduceTask(isKept, middle, to));
+        return;
+      }
+
+      long[] implied = new long[words];
+      for (int component = from; component < to; component++) {
+        reduceRow(component, implied, isKept);
+      }
+    }
+  }
+}
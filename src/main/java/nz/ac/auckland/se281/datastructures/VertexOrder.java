@@ -0,0 +1,30 @@
+package nz.ac.auckland.se281.datastructures;
+
+import java.util.Comparator;
+
+/**
+ * The order in which a {@link Graph} lists and searches its vertices and picks the minimum of each
+ * equivalence class.
+ *
+ * @param <T> The type of each vertex.
+ */
+public interface VertexOrder<T> extends Comparator<T> {
+  /**
+   * Orders vertices by their {@link Comparable#compareTo} method.
+   *
+   * @param <T> The type of each vertex.
+   * @return The natural order.
+   */
+  static <T extends Comparable<? super T>> VertexOrder<T> natural() {
+    return (first, second) -> first.compareTo(second);
+  }
+
+  /**
+   * Orders labels by their numeric value, with the labels that are not numbers after the rest.
+   *
+   * @return A new numeric order.
+   */
+  static VertexOrder<String> numeric() {
+    return new NumericLabelOrder();
+  }
+}
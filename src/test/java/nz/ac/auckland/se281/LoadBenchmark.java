@@ -0,0 +1,96 @@
+package nz.ac.auckland.se281;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how the time to open a graph scales with the number of loader threads.
+ *
+ * <p>Loads {@code test-100k.txt} and two larger generated graphs with 1, 2, 4, ... threads up to the
+ * number of available processors, and prints the median of several runs. Run it with {@code mvn
+ * test-compile exec:java@load-benchmark}.
+ */
+public class LoadBenchmark {
+  private static final int WARMUP_RUNS = 3;
+
+  private static final int MEASURED_RUNS = 7;
+
+  private static final long SEED = 281;
+
+  public static void main(final String[] args) throws IOException {
+    final Path directory = Files.createTempDirectory("graph-calculator-bench");
+    final List<Path> files = new ArrayList<>();
+
+    files.add(Path.of("testcases", "test-100k.txt").toAbsolutePath());
+    files.add(generate(directory, 1_000_000, 3));
+    files.add(generate(directory, 2_000_000, 5));
+
+    try {
+      for (final Path file : files) {
+        System.out.printf("%s (%d MB)%n", file.getFileName(), Files.size(file) >> 20);
+
+        for (int threads = 1; ; threads *= 2) {
+          threads = Math.min(threads, Runtime.getRuntime().availableProcessors());
+          System.out.printf("  %2d threads: %6d ms%n", threads, measure(file, threads));
+
+          if (threads == Runtime.getRuntime().availableProcessors()) {
+            break;
+          }
+        }
+      }
+    } finally {
+      for (final Path file : files) {
+        if (file.startsWith(directory)) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+    }
+  }
+
+  private static long measure(final Path file, final int threads) throws IOException {
+    final long[] times = new long[MEASURED_RUNS];
+
+    for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+      final long start = System.nanoTime();
+      new GraphCalculator(file.toString(), threads);
+      final long time = System.nanoTime() - start;
+
+      if (run >= 0) {
+        times[run] = time;
+      }
+    }
+
+    Arrays.sort(times);
+    return times[MEASURED_RUNS / 2] / 1_000_000;
+  }
+
+  private static Path generate(final Path directory, final int vertices, final int outDegree)
+      throws IOException {
+    final Path file = directory.resolve("random-" + vertices + ".txt");
+    final Random random = new Random(SEED);
+
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      writer.write("digraph random {");
+      writer.newLine();
+
+      for (int source = 0; source < vertices; source++) {
+        for (int i = 0; i < outDegree; i++) {
+          writer.write(" " + source + " -> " + random.nextInt(vertices) + ";");
+          writer.newLine();
+        }
+      }
+
+      writer.write("}");
+      writer.newLine();
+    }
+
+    return file;
+  }
+}
@@ -1,7 +1,36 @@
 package nz.ac.auckland.se281;
 
 import static nz.ac.auckland.se281.Command.*;
-
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+import nz.ac.auckland.se281.datastructures.CompactGraph;
+import nz.ac.auckland.se281.datastructures.GraphSnapshot;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
@@ -440,6 +469,765 @@ public class MainTest {
       assertContains("Successfully opened graph from file oval.txt");
       assertContains("[1, 2, 3, 4, 5, 6, 7]");
     }
+
+    @Test
+    public void TY_26_test_10k_iterative_BFS() throws Exception {
+      runCommands(OPEN_FILE, "test-10k.txt", GRAPH_SEARCH_IBFS);
+      assertContains("Successfully opened graph from file test-10k.txt");
+      assertContains("[6, 4024, 9322, 1132, 4558, 238, 335, 7870, 6485, 4145, 6105, 9304, 8604,");
+    }
+
+    @Test
+    public void TY_27_test_10k_iterative_DFS() throws Exception {
+      runCommands(OPEN_FILE, "test-10k.txt", GRAPH_SEARCH_IDFS);
+      assertContains("Successfully opened graph from file test-10k.txt");
+      assertContains("[6, 4024, 1132, 6485, 4541, 2834, 1151, 2562, 6050, 5612, 1108, 7116, 275,");
+    }
+
+    @Test
+    public void TY_28_reflex_sym_1k_transitivity() throws Exception {
+      runCommands(OPEN_FILE, "reflex-sym-1k.txt", CHECK_TRANSITIVITY);
+      assertContains("Successfully opened graph from file reflex-sym-1k.txt");
+      assertContains("The graph is NOT transitive");
+    }
+
+    @Test
+    public void TY_29_C_modified_equivalence_class_3() throws Exception {
+      runCommands(OPEN_FILE, "c-modified.txt", COMPUTE_EQUIVALENCE, 3);
+      assertContains("Successfully opened graph from file c-modified.txt");
+      assertContains("[10, 2, 3]");
+    }
+
+    @Test
+    public void TY_30_test_100k_iterative_BFS() throws Exception {
+      runCommands(OPEN_FILE, "test-100k.txt", GRAPH_SEARCH_IBFS);
+      assertContains("Successfully opened graph from file test-100k.txt");
+      assertContains("[2, 16828, 45722, 11569, 25647, 5039, 14580, 1002, 26214, 94633, 13581,");
+    }
+
+    @Test
+    public void TY_31_test_100k_reopen_from_snapshot() throws Exception {
+      runCommands(OPEN_FILE, "test-100k.txt", CHECK_TRANSITIVITY);
+      assertContains("The graph is NOT transitive");
+
+      // The checked properties are saved in the snapshot, outside the test cases folder
+      final Path snapshot = GraphSnapshot.pathFor(Path.of("testcases", "test-100k.txt"));
+      assertEquals(true, Files.isRegularFile(snapshot));
+      assertEquals(GraphSnapshot.DIRECTORY == null, snapshot.startsWith("testcases"));
+
+      // A parsed graph has not been profiled yet, so only a snapshot reads back profiled
+      final GraphCalculator reopened = new GraphCalculator("test-100k.txt");
+      assertEquals(true, reopened.getSharedGraph().isProfiled());
+    }
+
+    @Test
+    public void TY_32_test_100k_recursive_searches() throws Exception {
+      runCommands(OPEN_FILE, "test-100k.txt", GRAPH_SEARCH_RBFS, GRAPH_SEARCH_RDFS);
+      assertContains("[2, 16828, 45722, 11569, 25647, 5039, 14580, 1002, 26214, 94633, 13581,");
+      assertContains("[2, 16828, 11569, 1002, 55988, 18847, 64056, 78710, 1483, 18320, 16534,");
+    }
+
+    @Test
+    public void TY_33_parallel_BFS_matches_iterative_BFS() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "test-one.txt",
+          GRAPH_SEARCH_PBFS,
+          OPEN_FILE,
+          "test-100k.txt",
+          GRAPH_SEARCH_PBFS);
+      assertContains(
+          "[1, 2, 3, 4, 5, 10, 6, 7, 9, 8, 11, 15, 22, 29, 16, 23, 30, 13, 20, 27, 12, 19, 26, 14,"
+              + " 21, 28, 17, 24, 31, 18, 25, 32]");
+      assertContains("[2, 16828, 45722, 11569, 25647, 5039, 14580, 1002, 26214, 94633, 13581,");
+    }
+
+    @Test
+    public void TY_34_test_10k_property_checks() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "test-10k.txt",
+          CHECK_REFLEXIVITY,
+          CHECK_SYMMETRY,
+          CHECK_TRANSITIVITY,
+          CHECK_ANTISYMMETRY);
+      assertContains("The graph is NOT reflexive");
+      assertContains("The graph is NOT symmetric");
+      assertContains("The graph is NOT transitive");
+      assertContains("The graph is NOT antisymmetric");
+    }
+
+    @Test
+    public void TY_35_edit_graph() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "antisymmetry-one-edge.txt",
+          ADD_EDGE,
+          "1 0",
+          CHECK_SYMMETRY,
+          ADD_EDGE,
+          "1 0",
+          ADD_VERTEX,
+          "2",
+          LIST_ROOT_VERTICIES,
+          REMOVE_EDGE,
+          "1 0",
+          REMOVE_VERTEX,
+          "5",
+          GRAPH_SEARCH_IBFS);
+      assertContains("Added edge 1 -> 0");
+      assertContains("The graph is symmetric");
+      assertContains("Edge 1 -> 0 is already in the graph");
+      assertContains("Added vertex 2");
+      assertContains("[2]");
+      assertContains("Removed edge 1 -> 0");
+      assertContains("Error: vertex 5 is not in the graph");
+      assertContains("[0, 1, 2]");
+    }
+
+    @Test
+    public void TY_36_transitive_closure_and_reduction() throws Exception {
+      try {
+        runCommands(
+            OPEN_FILE,
+            "c.txt",
+            TRANSITIVE_REDUCTION,
+            "c-reduction.txt",
+            OPEN_FILE,
+            "c-reduction.txt",
+            CHECK_TRANSITIVITY,
+            TRANSITIVE_CLOSURE,
+            "c-closure.txt",
+            OPEN_FILE,
+            "c-closure.txt",
+            CHECK_TRANSITIVITY,
+            LIST_VERTICIES_EDGES);
+        assertContains("Wrote the transitive reduction of the graph, with 4 edges, to file");
+        assertContains("The graph is NOT transitive");
+        assertContains("Wrote the transitive closure of the graph, with 10 edges, to file");
+        assertContains("The graph is transitive");
+        assertContains("0 -> 0");
+        assertContains("3 -> 1");
+        assertDoesNotContain("0 -> 1", true);
+      } finally {
+        Files.deleteIfExists(Path.of("testcases", "c-reduction.txt"));
+        Files.deleteIfExists(Path.of("testcases", "c-closure.txt"));
+      }
+    }
+
+    @Test
+    public void TY_37_strongly_connected_components() throws Exception {
+      runCommands(OPEN_FILE, "b.txt", LIST_COMPONENTS, OPEN_FILE, "c.txt", LIST_COMPONENTS);
+      assertContains("0: [6]");
+      assertContains("1: [0, 1, 2, 3, 4, 5]");
+      assertContains("0 -> 1");
+      assertContains("0: [1, 2, 3]");
+      assertContains("1: [0]");
+    }
+
+    @Test
+    public void TY_38_reachability_queries() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "b.txt",
+          REACHABLE,
+          "6 5",
+          REACHABLE,
+          "5 6",
+          REACHABLE,
+          "0 0",
+          REACHABLE,
+          "0 9",
+          OPEN_FILE,
+          "c.txt",
+          REACHABLE,
+          "0 1",
+          REACHABLE,
+          "1 3");
+      assertContains("Built the reachability index in");
+      assertContains("6 can reach 5");
+      assertContains("5 cannot reach 6");
+      assertContains("0 can reach 0");
+      assertContains("Error: vertex 9 is not in the graph");
+      assertContains("0 cannot reach 1");
+      assertContains("1 can reach 3");
+    }
+
+    @Test
+    public void TY_39_shortest_path_and_distances() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "test-one.txt",
+          SHORTEST_PATH,
+          "1 32",
+          SHORTEST_PATH,
+          "32 1",
+          DISTANCES,
+          "3");
+      assertContains("The shortest path from 1 to 32 has 3 edges: [1, 4, 11, 32]");
+      assertContains("There is no path from 32 to 1");
+      assertContains("1: [6, 7, 9]");
+      assertContains("2: [12, 13, 14, 19, 20, 21, 26, 27, 28]");
+    }
+
+    @Test
+    public void TY_40_topological_sort() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "useless-root.txt",
+          TOPOLOGICAL_SORT,
+          ADD_EDGE,
+          "5 0",
+          TOPOLOGICAL_SORT,
+          OPEN_FILE,
+          "c.txt",
+          TOPOLOGICAL_SORT);
+      assertContains("[0, 1, 2, 3, 4, 6, 5]");
+      assertContains("The graph is not acyclic, it has the cycle 0 -> 1 -> 5 -> 0");
+      assertContains("The graph is not acyclic, it has the cycle 0 -> 0");
+    }
+
+    @Test
+    public void TY_41_mixed_labels_keep_their_order() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "a.txt",
+          ADD_VERTEX,
+          "b",
+          ADD_VERTEX,
+          "10",
+          ADD_VERTEX,
+          "a",
+          REMOVE_VERTEX,
+          "a",
+          ADD_VERTEX,
+          "a",
+          LIST_ROOT_VERTICIES);
+      assertContains("[0, 10, a, b]");
+    }
+
+    @Test
+    public void TY_42_batch_mode() throws Exception {
+      runCommands(OPEN_FILE, "a.txt");
+      new Main(new Scanner(""))
+          .runBatch(
+              new BufferedReader(
+                  new StringReader(
+                      "# Roots of c.txt\n\nopen-file c.txt\nlist-root-verticies\nexit\ninfo\n")));
+      assertContains("Successfully opened graph from file c.txt");
+      assertContains("[0, 1]");
+      assertDoesNotContain("Command not found");
+      assertDoesNotContain("File name: c.txt");
+    }
+
+    @Test
+    public void TY_43_server_sessions() throws Exception {
+      runCommands(OPEN_FILE, "a.txt");
+      final GraphServer server =
+          new GraphServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      final SocketAddress address = server.start();
+      final Thread acceptor = new Thread(server::serve);
+      acceptor.start();
+
+      try (Socket first = new Socket();
+          Socket second = new Socket()) {
+        first.connect(address);
+        second.connect(address);
+
+        assertEquals(
+            List.of("Successfully opened graph from file c.txt"),
+            request(first, "open-file c.txt"));
+        assertEquals(
+            List.of("Successfully opened graph from file c.txt"),
+            request(second, "open-file c.txt"));
+        assertEquals(List.of("Added vertex 9"), request(second, "add-vertex 9"));
+
+        // Edits made by one session are not seen by the other
+        assertEquals(List.of("[0, 1]"), request(first, "list-root-verticies"));
+        assertEquals(List.of("[9]"), request(second, "list-root-verticies"));
+
+        // A command that fails is answered with an error, and the session carries on
+        final List<String> failed = request(second, "transitive-closure nul\0.txt");
+        assertEquals(1, failed.size());
+        assertEquals(true, failed.get(0).startsWith("Error: the command failed with"));
+        assertEquals(List.of("[9]"), request(second, "list-root-verticies"));
+        assertEquals(List.of("You closed the terminal. Goodbye."), request(first, "exit"));
+      } finally {
+        server.close();
+        acceptor.join();
+      }
+
+      // Nothing a session printed reached the console
+      assertDoesNotContain("c.txt");
+    }
+
+    @Test
+    public void TY_44_workspace() throws Exception {
+      runCommands(
+          OPEN_FILE, "a.txt", OPEN_FILE, "c.txt", USE, "a.txt", INFO, LIST_GRAPHS, USE, "b.txt");
+      assertContains("Using graph a.txt");
+      assertContains("File name: a.txt");
+      assertContains("The workspace holds 2 graphs");
+      // The graph in use was used last, so it is listed first
+      assertEquals(
+          true,
+          Pattern.compile("\ta\\.txt: \\d+ bytes \\(in use\\)\\R\tc\\.txt: \\d+ bytes\\R")
+              .matcher(getCaptureOut())
+              .find());
+      assertContains("Error: graph 'b.txt' is not loaded in the workspace");
+    }
+
+    @Test
+    public void TY_45_transitive_reduction_too_large_for_the_heap() throws Exception {
+      // Each vertex has one edge to a random lower vertex, so there are 100,000 components whose
+      // rows of reachable components need about 1.25 GB, more than the heap the tests run with.
+      final Random random = new Random(45);
+      final StringBuilder sb = new StringBuilder("digraph dag {\n");
+      for (int vertex = 1; vertex < 100_000; vertex++) {
+        sb.append(vertex).append(" -> ").append(random.nextInt(vertex)).append(";\n");
+      }
+      sb.append("}\n");
+
+      final Path dag = Path.of("testcases", "dag-100k.txt");
+      try {
+        Files.writeString(dag, sb);
+        runCommands(
+            OPEN_FILE,
+            "dag-100k.txt",
+            TRANSITIVE_REDUCTION,
+            "dag-reduction.txt",
+            CHECK_REFLEXIVITY);
+        assertContains("Error: the transitive reduction of the graph is too large to compute");
+        assertContains("The graph is NOT reflexive");
+        assertEquals(false, Files.exists(Path.of("testcases", "dag-reduction.txt")));
+      } finally {
+        Files.deleteIfExists(GraphSnapshot.pathFor(dag));
+        Files.deleteIfExists(dag);
+      }
+    }
+
+    @Test
+    public void TY_46_written_labels_read_back() throws Exception {
+      try {
+        runCommands(
+            OPEN_FILE,
+            "a.txt",
+            ADD_VERTEX,
+            "a\\",
+            ADD_VERTEX,
+            "b\\\"c",
+            TRANSITIVE_CLOSURE,
+            "a-closure.txt",
+            OPEN_FILE,
+            "a-closure.txt",
+            LIST_ROOT_VERTICIES);
+        assertContains("Successfully opened graph from file a-closure.txt");
+        assertContains(", a\\, b\\\"c]");
+      } finally {
+        Files.deleteIfExists(Path.of("testcases", "a-closure.txt"));
+      }
+    }
+
+    @Test
+    public void TY_47_damaged_snapshot_is_parsed_again() throws Exception {
+      final Path copy = Path.of("testcases", "test-100k-damaged.txt");
+      final Path snapshot = GraphSnapshot.pathFor(copy);
+
+      try {
+        Files.copy(
+            Path.of("testcases", "test-100k.txt"), copy, StandardCopyOption.REPLACE_EXISTING);
+        final CompactGraph graph = new GraphCalculator("test-100k-damaged.txt").getSharedGraph();
+        long labelBytes = 0;
+        for (int vertex = 0; vertex < graph.getVertexCount(); vertex++) {
+          labelBytes += graph.getLabel(vertex).length();
+        }
+
+        // The labels end the snapshot, after their offsets, so make the last offset decrease
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+          final long position = channel.size() - labelBytes - 2 * Integer.BYTES;
+          channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, Integer.MAX_VALUE), position);
+        }
+
+        runCommands(OPEN_FILE, "test-100k-damaged.txt", GRAPH_SEARCH_IBFS);
+        assertContains("Successfully opened graph from file test-100k-damaged.txt");
+        assertContains("[2, 16828, 45722, 11569, 25647, 5039, 14580, 1002, 26214, 94633, 13581,");
+      } finally {
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(copy);
+      }
+    }
+
+    @Test
+    public void TY_48_dot_comments_quoted_ids_and_attributes() throws Exception {
+      runCommands(OPEN_FILE, "dot-features.txt", LIST_VERTICIES_EDGES, LIST_ROOT_VERTICIES);
+      assertContains("Successfully opened graph from file dot-features.txt");
+      assertContains("\tquoted vertex" + NEW_LINE + "\tsay \"hi\"" + NEW_LINE);
+      assertContains("\t2 -> quoted vertex" + NEW_LINE);
+      assertContains("\tquoted vertex -> say \"hi\"" + NEW_LINE);
+      assertContains("\tsay \"hi\" -> 0" + NEW_LINE);
+      assertContains("[-4]");
+      // The arrows inside attribute values are not edges
+      assertDoesNotContain("\t9" + NEW_LINE);
+      assertDoesNotContain("-> 3");
+    }
+
+    @Test
+    public void TY_49_malformed_file() throws Exception {
+      runCommands(OPEN_FILE, "a.txt", OPEN_FILE, "malformed.txt", INFO, LIST_ROOT_VERTICIES);
+      assertContains(
+          "Error: file 'malformed.txt' is not a valid graph. Invalid graph on line 3: an edge is"
+              + " missing its target vertex");
+      assertContains("File name: a.txt");
+      assertContains("[0]");
+
+      // A batch carries on after the error too
+      new Main(new Scanner(""))
+          .runBatch(
+              new BufferedReader(new StringReader("open-file malformed.txt\nopen-file c.txt\n")));
+      assertContains("Successfully opened graph from file c.txt");
+    }
+
+    @Test
+    public void TY_50_transitivity_after_edits() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "antisymmetry-one-edge.txt",
+          CHECK_TRANSITIVITY,
+          ADD_EDGE,
+          "1 2",
+          CHECK_TRANSITIVITY,
+          ADD_EDGE,
+          "0 2",
+          CHECK_TRANSITIVITY,
+          REMOVE_EDGE,
+          "0 2",
+          CHECK_TRANSITIVITY,
+          REMOVE_EDGE,
+          "1 2",
+          CHECK_TRANSITIVITY);
+      assertContainsInOrder(
+          "The graph is transitive",
+          "Added edge 1 -> 2",
+          "The graph is NOT transitive",
+          "Added edge 0 -> 2",
+          "The graph is transitive",
+          "Removed edge 0 -> 2",
+          "The graph is NOT transitive",
+          "Removed edge 1 -> 2",
+          "The graph is transitive");
+    }
+
+    @Test
+    public void TY_51_antisymmetry_after_edits() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "antisymmetry-one-edge.txt",
+          CHECK_ANTISYMMETRY,
+          ADD_EDGE,
+          "1 0",
+          CHECK_ANTISYMMETRY,
+          ADD_EDGE,
+          "0 0",
+          REMOVE_EDGE,
+          "0 1",
+          CHECK_ANTISYMMETRY,
+          ADD_EDGE,
+          "0 1",
+          CHECK_ANTISYMMETRY,
+          REMOVE_VERTEX,
+          "1",
+          CHECK_ANTISYMMETRY);
+      assertContainsInOrder(
+          "The graph is antisymmetric",
+          "Added edge 1 -> 0",
+          "The graph is NOT antisymmetric",
+          "Removed edge 0 -> 1",
+          "The graph is antisymmetric",
+          "Added edge 0 -> 1",
+          "The graph is NOT antisymmetric",
+          "Removed vertex 1",
+          "The graph is antisymmetric");
+    }
+
+    @Test
+    public void TY_52_equivalence_classes_after_edits() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "d.txt",
+          COMPUTE_EQUIVALENCE,
+          "1",
+          REMOVE_EDGE,
+          "1 3",
+          CHECK_EQUIVALENCE,
+          COMPUTE_EQUIVALENCE,
+          "1",
+          REMOVE_EDGE,
+          "1 4",
+          REMOVE_EDGE,
+          "2 3",
+          REMOVE_EDGE,
+          "2 4",
+          REMOVE_EDGE,
+          "3 1",
+          REMOVE_EDGE,
+          "3 2",
+          REMOVE_EDGE,
+          "4 1",
+          REMOVE_EDGE,
+          "4 2",
+          CHECK_EQUIVALENCE,
+          COMPUTE_EQUIVALENCE,
+          "1",
+          COMPUTE_EQUIVALENCE,
+          "4",
+          ADD_VERTEX,
+          "5",
+          ADD_EDGE,
+          "5 5",
+          CHECK_EQUIVALENCE,
+          COMPUTE_EQUIVALENCE,
+          "5",
+          REMOVE_VERTEX,
+          "2",
+          COMPUTE_EQUIVALENCE,
+          "1");
+      assertContainsInOrder(
+          "[1, 2, 3, 4]",
+          "Removed edge 1 -> 3",
+          "The graph is NOT an equivalence relation",
+          "[]",
+          "Removed edge 4 -> 2",
+          "The graph is an equivalence relation",
+          "[1, 2]",
+          "[3, 4]",
+          "Added edge 5 -> 5",
+          "The graph is an equivalence relation",
+          "[5]",
+          "Removed vertex 2",
+          "[1]");
+    }
+
+    @Test
+    public void TY_53_workspace_keeps_graphs_in_use() throws Exception {
+      runCommands(OPEN_FILE, "a.txt");
+
+      // Any graph is over the budget, so only the graphs in use are kept
+      final GraphCache cache = new GraphCache(1);
+      final GraphCalculator first = cache.open("a.txt");
+      final GraphCalculator second = cache.open("c.txt");
+      final GraphCalculator again = cache.open("a.txt");
+      assertEquals(true, first.getSharedGraph() == again.getSharedGraph());
+
+      cache.release(first);
+      cache.release(again);
+      assertEquals(null, cache.use("a.txt"));
+
+      // A graph whose file changed while it was in use is still counted
+      final Path copy = Path.of("testcases", "workspace-copy.txt");
+      try {
+        Files.copy(Path.of("testcases", "c.txt"), copy, StandardCopyOption.REPLACE_EXISTING);
+        final GraphCalculator old = cache.open("workspace-copy.txt");
+        Files.setLastModifiedTime(copy, FileTime.fromMillis(0));
+        final GraphCalculator reloaded = cache.open("workspace-copy.txt");
+        cache.printGraphs();
+        assertContains("The workspace holds 3 graphs");
+        assertContains("workspace-copy.txt: ");
+        assertContains(" bytes (in use, file changed)");
+
+        cache.release(old);
+        cache.release(reloaded);
+        cache.release(second);
+        cache.printGraphs();
+        assertContains("The workspace holds 0 graphs, using 0 of 1 bytes:");
+      } finally {
+        Files.deleteIfExists(copy);
+      }
+    }
+
+    @Test
+    public void TY_54_labels_added_to_an_empty_graph_are_numeric() throws Exception {
+      final Path empty = Path.of("testcases", "empty-graph.txt");
+      try {
+        Files.writeString(empty, "digraph empty {}\n");
+        runCommands(
+            OPEN_FILE,
+            "empty-graph.txt",
+            ADD_VERTEX,
+            "2",
+            ADD_VERTEX,
+            "10",
+            ADD_VERTEX,
+            "9",
+            LIST_ROOT_VERTICIES);
+        assertContains("[2, 9, 10]");
+      } finally {
+        Files.deleteIfExists(GraphSnapshot.pathFor(empty));
+        Files.deleteIfExists(empty);
+      }
+    }
+
+    @Test
+    public void TY_55_long_chain_recursive_searches() throws Exception {
+      // Recursing once per vertex of a million-vertex chain would overflow the default stack
+      final StringBuilder sb = new StringBuilder("digraph chain {\n");
+      final StringBuilder order = new StringBuilder("[0");
+      for (int vertex = 1; vertex < 1_000_000; vertex++) {
+        sb.append(vertex - 1).append(" -> ").append(vertex).append(";\n");
+        order.append(", ").append(vertex);
+      }
+      sb.append("}\n");
+      order.append("]");
+
+      final Path chain = Path.of("testcases", "chain-1m.txt");
+      try {
+        Files.writeString(chain, sb);
+        runCommands(OPEN_FILE, "chain-1m.txt", GRAPH_SEARCH_RDFS, GRAPH_SEARCH_RBFS);
+        assertContainsInOrder(order.toString(), order.toString());
+        assertDoesNotContain("Error");
+      } finally {
+        Files.deleteIfExists(GraphSnapshot.pathFor(chain));
+        Files.deleteIfExists(chain);
+      }
+    }
+
+    @Test
+    public void TY_56_derived_graphs_stay_in_testcases() throws Exception {
+      final Path source = Path.of("testcases", "own-source.txt");
+      final Path outside = Path.of(System.getProperty("java.io.tmpdir"), "escaped-reduction.txt");
+
+      try {
+        Files.copy(Path.of("testcases", "a.txt"), source, StandardCopyOption.REPLACE_EXISTING);
+        runCommands(
+            OPEN_FILE,
+            "own-source.txt",
+            TRANSITIVE_CLOSURE,
+            "../escaped-closure.txt",
+            TRANSITIVE_REDUCTION,
+            outside.toString(),
+            TRANSITIVE_CLOSURE,
+            "own-source.txt",
+            TRANSITIVE_REDUCTION,
+            "./own-source.txt");
+        assertContains("Error: file '../escaped-closure.txt' could not be written");
+        assertContains("Error: file '" + outside + "' could not be written");
+        assertContains("Error: file 'own-source.txt' could not be written");
+        assertContains("Error: file './own-source.txt' could not be written");
+        assertDoesNotContain("Wrote the transitive");
+        assertEquals(false, Files.exists(Path.of("escaped-closure.txt")));
+        assertEquals(false, Files.exists(outside));
+        assertEquals(Files.readString(Path.of("testcases", "a.txt")), Files.readString(source));
+      } finally {
+        Files.deleteIfExists(source);
+      }
+    }
+
+    @Test
+    public void TY_57_open_file_stays_in_testcases() throws Exception {
+      final Path outside = Path.of("pom.xml").toAbsolutePath();
+      runCommands(OPEN_FILE, "../pom.xml", OPEN_FILE, outside.toString(), OPEN_FILE, "./a.txt");
+      assertContains("Error: file '../pom.xml' not found in `testcases` folder");
+      assertContains("Error: file '" + outside + "' not found in `testcases` folder");
+      assertContains("Successfully opened graph from file ./a.txt");
+    }
+
+    @Test
+    public void TY_58_server_only_listens_on_loopback() throws Exception {
+      runCommands(OPEN_FILE, "a.txt");
+      boolean isRejected = false;
+
+      try {
+        new GraphServer(new InetSocketAddress(InetAddress.getByAddress(new byte[4]), 0));
+      } catch (IllegalArgumentException e) {
+        isRejected = true;
+      }
+
+      assertEquals(true, isRejected);
+    }
+
+    @Test
+    public void TY_59_workspace_reads_a_file_once_for_sessions_opening_it_together()
+        throws Exception {
+      runCommands(OPEN_FILE, "a.txt");
+      final GraphCache cache = new GraphCache();
+      final List<CompletableFuture<GraphCalculator>> opened = new ArrayList<>();
+
+      for (int session = 0; session < 4; session++) {
+        opened.add(
+            CompletableFuture.supplyAsync(
+                () -> {
+                  try {
+                    return cache.open("test-10k.txt");
+                  } catch (FileNotFoundException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                }));
+      }
+
+      final CompactGraph graph = opened.get(0).join().getSharedGraph();
+      for (final CompletableFuture<GraphCalculator> calculator : opened) {
+        assertEquals(true, calculator.join().getSharedGraph() == graph);
+        cache.release(calculator.join());
+      }
+    }
+
+    @Test
+    public void TY_60_equivalence_roots_after_edits() throws Exception {
+      runCommands(
+          OPEN_FILE,
+          "c.txt",
+          LIST_ROOT_VERTICIES,
+          ADD_EDGE,
+          "10 10",
+          LIST_ROOT_VERTICIES,
+          ADD_EDGE,
+          "11 11",
+          LIST_ROOT_VERTICIES,
+          ADD_EDGE,
+          "10 0",
+          ADD_EDGE,
+          "0 10",
+          LIST_ROOT_VERTICIES,
+          REMOVE_VERTEX,
+          "0",
+          LIST_ROOT_VERTICIES);
+      assertContainsInOrder(
+          "[0, 1]",
+          "Added edge 10 -> 10",
+          "[0, 1, 10]",
+          "Added edge 11 -> 11",
+          "[0, 1, 10, 11]",
+          "Added edge 0 -> 10",
+          "[0, 1, 11]",
+          "Removed vertex 0",
+          "[1, 10, 11]");
+    }
+
+    private void assertContainsInOrder(String... lines) {
+      final String out = getCaptureOut();
+      int from = 0;
+
+      for (final String line : lines) {
+        final int index = out.indexOf(line, from);
+        assertEquals("\"" + line + "\" after output index " + from, true, index >= 0);
+        from = index + line.length();
+      }
+    }
+
+    private static List<String> request(Socket socket, String command) throws IOException {
+      final BufferedReader in =
+          new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      final Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      out.write(command + "\n");
+      out.flush();
+
+      final List<String> lines = new ArrayList<>();
+      for (int i = Integer.parseInt(in.readLine()); i > 0; i--) {
+        lines.add(in.readLine());
+      }
+
+      return lines;
+    }
   }
 
   public static class PeerTests extends CliTest {